@@ -0,0 +1,422 @@
+package BST;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the BST operations, for every combination of tree size and key distribution. The
+ * keys of a tree of size n are the even numbers below 2n, added in random, sorted, reverse or zigzag
+ * (smallest, biggest, second smallest, ...) order, so that the probes of the lookups, which can be odd,
+ * also miss.
+ *
+ * add and remove are measured in batches of BATCH odd keys, added to (or removed from) the tree and
+ * then undone outside the measurement, so the tree keeps its size. The GC profiler still counts what
+ * the undoing allocates, so their bytes per operation include it. contains, ceiling, floor and get
+ * each measure one call with the next of a fixed set of random probes. iterate, equals and toString
+ * measure one pass over the whole tree.
+ *
+ * Running the jar runs every benchmark with the GC profiler, which reports the bytes allocated per
+ * operation, and writes the results to bst-benchmark.json. Any JMH option given on the command line
+ * replaces these defaults, and a subset can be chosen with JMH's parameters, e.g.
+ * java -jar target/benchmarks.jar contains -p size=1000,100000 -p distribution=random -rff out.json.
+ * Unbalanced trees are left out by default, since sorted keys make them n levels deep; they can be
+ * added with -p balancing=NONE,AVL on small sizes.
+ *
+ * @author Shrey Khater
+ * @version 12/5/22
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BSTBenchmark
+{
+    private static final int BATCH = 1024;
+    private static final int PROBES = 1 << 16;
+
+    /**
+     * Runs the benchmarks with the GC profiler and JSON results, unless the command line says otherwise.
+     *
+     * @param args JMH's command line options
+     * @throws CommandLineOptionException if the options cannot be parsed
+     * @throws RunnerException if the benchmarks cannot be run
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException
+    {
+        CommandLineOptions options = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+        if (options.getIncludes().isEmpty())
+        {
+            builder.include(BSTBenchmark.class.getSimpleName());
+        }
+        if (options.getProfilers().isEmpty())
+        {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (!options.getResultFormat().hasValue())
+        {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!options.getResult().hasValue())
+        {
+            builder.result("bst-benchmark.json");
+        }
+        new Runner(builder.build()).run();
+    }
+
+    /**
+     * A tree built from the keys of one size and distribution, with the probes searched for in it.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    @State(Scope.Thread)
+    public static class Tree
+    {
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        @Param({"random", "sorted", "reverse", "zigzag"})
+        public String distribution;
+
+        @Param({"AVL"})
+        public BST.Balancing balancing;
+
+        private Integer[] keys;
+        private Integer[] probes;
+        private BST<Integer> bst;
+        private int next;
+
+        /**
+         * Builds the tree and draws the probes.
+         */
+        @Setup(Level.Trial)
+        public void setUp()
+        {
+            keys = keys(distribution, size);
+            bst = build();
+            Random random = new Random(43);
+            probes = new Integer[PROBES];
+            for (int i = 0; i < probes.length; i++)
+            {
+                probes[i] = random.nextInt(2 * size + 1) - 1;
+            }
+        }
+
+        /**
+         * Builds a new tree by adding the keys one by one, in order.
+         *
+         * @return the tree
+         */
+        public BST<Integer> build()
+        {
+            BST<Integer> built = new BST<Integer>(balancing);
+            for (Integer key : keys)
+            {
+                built.add(key);
+            }
+            return built;
+        }
+
+        /**
+         * Obtains the next probe, going round the probes in order.
+         *
+         * @return the probe
+         */
+        public Integer nextProbe()
+        {
+            Integer probe = probes[next];
+            next = (next + 1) & (PROBES - 1);
+            return probe;
+        }
+    }
+
+    /**
+     * A copy of the tree built separately, for equals.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    @State(Scope.Thread)
+    public static class Copy
+    {
+        private BST<Integer> bst;
+
+        /**
+         * Builds the copy.
+         *
+         * @param original the tree being copied
+         */
+        @Setup(Level.Trial)
+        public void setUp(Tree original)
+        {
+            bst = original.build();
+        }
+    }
+
+    /**
+     * The distinct odd keys added and removed in batches by the add and remove benchmarks. None of them
+     * are in the tree outside a batch. Trees smaller than a batch get keys past their greatest element
+     * too, so a batch can be that much bigger than the tree itself.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    @State(Scope.Thread)
+    public static class Batch
+    {
+        protected Integer[] keys;
+        protected int start;
+
+        /**
+         * Draws the odd keys, in random order.
+         *
+         * @param tree the tree the keys are added to
+         */
+        @Setup(Level.Trial)
+        public void setUp(Tree tree)
+        {
+            Random random = new Random(44);
+            int range = Math.max(tree.size, BATCH);
+            LinkedHashSet<Integer> drawn = new LinkedHashSet<Integer>();
+            while (drawn.size() < Math.min(range, 64 * BATCH))
+            {
+                drawn.add(2 * random.nextInt(range) + 1);
+            }
+            keys = drawn.toArray(new Integer[0]);
+        }
+
+        /**
+         * Moves on to the next batch of keys, going round the keys in order.
+         */
+        public void advance()
+        {
+            start += BATCH;
+            if (start + BATCH > keys.length)
+            {
+                start = 0;
+            }
+        }
+    }
+
+    /**
+     * The state of the add benchmark, which removes the batch just added once it has been measured.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    @State(Scope.Thread)
+    public static class AddBatch extends Batch
+    {
+        /**
+         * Removes the batch just added.
+         *
+         * @param tree the tree the batch was added to
+         */
+        @TearDown(Level.Invocation)
+        public void undo(Tree tree)
+        {
+            for (int i = 0; i < BATCH; i++)
+            {
+                tree.bst.remove(keys[start + i]);
+            }
+            advance();
+        }
+    }
+
+    /**
+     * The state of the remove benchmark, which adds the batch to be removed before it is measured.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    @State(Scope.Thread)
+    public static class RemoveBatch extends Batch
+    {
+        /**
+         * Adds the next batch.
+         *
+         * @param tree the tree the batch is added to
+         */
+        @Setup(Level.Invocation)
+        public void prepare(Tree tree)
+        {
+            advance();
+            for (int i = 0; i < BATCH; i++)
+            {
+                tree.bst.add(keys[start + i]);
+            }
+        }
+    }
+
+    /**
+     * Adds a batch of keys that are not in the tree.
+     *
+     * @param tree the tree
+     * @param batch the keys
+     * @return the number of keys added
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int add(Tree tree, AddBatch batch)
+    {
+        int added = 0;
+        for (int i = 0; i < BATCH; i++)
+        {
+            added += tree.bst.add(batch.keys[batch.start + i]) ? 1 : 0;
+        }
+        return added;
+    }
+
+    /**
+     * Removes a batch of keys that were just added to the tree.
+     *
+     * @param tree the tree
+     * @param batch the keys
+     * @return the number of keys removed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int remove(Tree tree, RemoveBatch batch)
+    {
+        int removed = 0;
+        for (int i = 0; i < BATCH; i++)
+        {
+            removed += tree.bst.remove(batch.keys[batch.start + i]) ? 1 : 0;
+        }
+        return removed;
+    }
+
+    /**
+     * Searches for the next probe.
+     *
+     * @param tree the tree
+     * @return whether the probe was found
+     */
+    @Benchmark
+    public boolean contains(Tree tree)
+    {
+        return tree.bst.contains(tree.nextProbe());
+    }
+
+    /**
+     * Finds the ceiling of the next probe.
+     *
+     * @param tree the tree
+     * @return the ceiling
+     */
+    @Benchmark
+    public Integer ceiling(Tree tree)
+    {
+        return tree.bst.ceiling(tree.nextProbe());
+    }
+
+    /**
+     * Finds the floor of the next probe.
+     *
+     * @param tree the tree
+     * @return the floor
+     */
+    @Benchmark
+    public Integer floor(Tree tree)
+    {
+        return tree.bst.floor(tree.nextProbe());
+    }
+
+    /**
+     * Obtains the element at the index given by the next probe.
+     *
+     * @param tree the tree
+     * @return the element
+     */
+    @Benchmark
+    public Integer get(Tree tree)
+    {
+        return tree.bst.get(Math.max(tree.nextProbe(), 0) % tree.size);
+    }
+
+    /**
+     * Iterates over the whole tree.
+     *
+     * @param tree the tree
+     * @param blackhole consumes the elements
+     */
+    @Benchmark
+    public void iterate(Tree tree, Blackhole blackhole)
+    {
+        for (Integer key : tree.bst)
+        {
+            blackhole.consume(key);
+        }
+    }
+
+    /**
+     * Compares the tree with an equal tree built separately.
+     *
+     * @param tree the tree
+     * @param copy the equal tree
+     * @return whether the trees are equal
+     */
+    @Benchmark
+    public boolean equals(Tree tree, Copy copy)
+    {
+        return tree.bst.equals(copy.bst);
+    }
+
+    /**
+     * Creates the string representation of the whole tree.
+     *
+     * @param tree the tree
+     * @return the string
+     */
+    @Benchmark
+    public String toString(Tree tree)
+    {
+        return tree.bst.toString();
+    }
+
+    /**
+     * Creates the keys of a tree in the order they are added.
+     *
+     * @param distribution random, sorted, reverse or zigzag
+     * @param size the number of keys
+     * @return the keys in insertion order
+     */
+    public static Integer[] keys(String distribution, int size)
+    {
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; i++)
+        {
+            switch (distribution)
+            {
+                case "random":
+                case "sorted":
+                    keys[i] = 2 * i;
+                    break;
+                case "reverse":
+                    keys[i] = 2 * (size - 1 - i);
+                    break;
+                case "zigzag":
+                    keys[i] = (i % 2 == 0) ? 2 * (i / 2) : 2 * (size - 1 - i / 2);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown distribution: " + distribution);
+            }
+        }
+        if (distribution.equals("random"))
+        {
+            Collections.shuffle(Arrays.asList(keys), new Random(42));
+        }
+        return keys;
+    }
+}
@@ -1,20 +1,34 @@
 package BST;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.Iterator;
+import java.util.function.Consumer;
 
 /**
  * Binary Search Trees (BSTs) are a special type of tree whose nodes can only have up to two children.
  * Additionally, all the data elements stored in the left subtree of a BST node must be smaller than
  * the data of the given BST node, while all the elements in the right subtree must be bigger. This
  * BST class implements BST methods such as add, remove, get, etc and stores the size and root node of
- * the BST as instance variables, as well as has iterater subclasses and a node subclass.
+ * the BST as instance variables, as well as has iterater subclasses and a node subclass. It implements
+ * NavigableSet, so it can be used wherever a TreeSet with natural ordering is expected, including live
+ * range views that only visit the elements inside their range.
  *
  * @param <E> the data type stored in the nodes of this BST
  *
  * @author Shrey Khater
  * @version 12/5/22
  */
-public class BST<E extends Comparable<E>>
+public class BST<E extends Comparable<E>> extends AbstractSet<E> implements NavigableSet<E>
 {
     /**
      * The Node class in this BST makes up the individual BST nodes of the tree, and store the left child
@@ -58,11 +72,11 @@ public class BST<E extends Comparable<E>>
          */
         public Node(E data, Node left, Node right)
         {
-            height = 1;
             this.left = left;
             this.right = right;
             this.data = data;
-            leftTreeSize = left.leftTreeSize + 1;
+            updateHeight();
+            updateLeftTreeSize();
         }
 
         /**
@@ -108,50 +122,279 @@ public class BST<E extends Comparable<E>>
          */
         public void updateLeftTreeSize()
         {
-            if (left == null && right == null)
+            leftTreeSize = (left == null) ? 0 : left.sizeSubTrees + 1;
+            sizeSubTrees = leftTreeSize + ((right == null) ? 0 : right.sizeSubTrees + 1);
+        }
+
+        /**
+         * Obtains the difference between the heights of the left and right subtrees of this node.
+         *
+         * @return the height of the left subtree minus the height of the right subtree
+         */
+        public int balanceFactor()
+        {
+            int leftHeight = (left == null) ? 0 : left.height;
+            int rightHeight = (right == null) ? 0 : right.height;
+            return leftHeight - rightHeight;
+        }
+    }
+
+    /**
+     * The balancing strategies a BST can be built with. NONE keeps the plain insertion-order shape
+     * (which BSTMountain relies on), while AVL rotates on every add and remove so that the height of
+     * the tree stays logarithmic in its size.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    public enum Balancing
+    {
+        NONE,
+        AVL
+    }
+
+    /**
+     * Converts keys to and from the bytes stored for them by save and load. Codecs for the common key
+     * types are provided as constants.
+     *
+     * @param <T> the type of the keys
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    public interface KeyCodec<T>
+    {
+        /**
+         * Encodes an Integer as its 4 big-endian bytes.
+         */
+        KeyCodec<Integer> INTEGER = new KeyCodec<Integer>()
+        {
+            @Override
+            public byte[] encode(Integer key)
             {
-                leftTreeSize = 0;
-                sizeSubTrees = 0;
+                return ByteBuffer.allocate(Integer.BYTES).putInt(key).array();
             }
-            else if (left == null)
+
+            @Override
+            public Integer decode(ByteBuffer bytes)
+            {
+                return bytes.getInt();
+            }
+        };
+
+        /**
+         * Encodes a Long as its 8 big-endian bytes.
+         */
+        KeyCodec<Long> LONG = new KeyCodec<Long>()
+        {
+            @Override
+            public byte[] encode(Long key)
             {
-                leftTreeSize = 0;
-                sizeSubTrees = right.sizeSubTrees+1;
+                return ByteBuffer.allocate(Long.BYTES).putLong(key).array();
             }
-            else if (left.right == null)
+
+            @Override
+            public Long decode(ByteBuffer bytes)
             {
-                leftTreeSize = left.leftTreeSize + 1;
-                sizeSubTrees++;
+                return bytes.getLong();
             }
-            else
+        };
+
+        /**
+         * Encodes a String as its UTF-8 bytes.
+         */
+        KeyCodec<String> STRING = new KeyCodec<String>()
+        {
+            @Override
+            public byte[] encode(String key)
             {
-                leftTreeSize = left.sizeSubTrees + 1;
-                sizeSubTrees++;
+                return key.getBytes(StandardCharsets.UTF_8);
             }
-        }
+
+            @Override
+            public String decode(ByteBuffer bytes)
+            {
+                byte[] utf8 = new byte[bytes.remaining()];
+                bytes.get(utf8);
+                return new String(utf8, StandardCharsets.UTF_8);
+            }
+        };
+
+        /**
+         * Converts a key to bytes.
+         *
+         * @param key the key being encoded
+         * @return the bytes of the key
+         */
+        byte[] encode(T key);
+
+        /**
+         * Converts bytes back to a key.
+         *
+         * @param bytes the bytes of exactly one key, from its position to its limit
+         * @return the decoded key
+         */
+        T decode(ByteBuffer bytes);
     }
+
     protected Node root;
 
     protected int size;
 
+    protected final Balancing balancing;
+
+    private static final int SNAPSHOT_MAGIC = 0x42535431;
+
+    protected int modCount;
+
+    protected int contentHash;
+
+    protected boolean contentHashStale;
+
     /**
      * Constructor for BST objects.
      */
     public BST()
     {
+        this(Balancing.NONE);
+    }
+
+    /**
+     * Constructor for BST objects that rebalance themselves with the given strategy.
+     *
+     * @param balancing the balancing strategy used on every add and remove
+     */
+    public BST(Balancing balancing)
+    {
+        if (balancing == null)
+        {
+            throw new NullPointerException("balancing strategy cannot be null");
+        }
         root = null;
+        this.balancing = balancing;
     }
 
     /**
-     * Contructor for BST objects using an already constructed array of elements of type E.
+     * Contructor for BST objects using an already constructed array of elements of type E. The array
+     * is copied and sorted, duplicates are dropped, and the balanced tree is then built in one linear
+     * pass, so the caller's array is left untouched.
      * @param collection the array of elements to be added to this BST
      */
     public BST(E[] collection)
     {
-        Arrays.sort(collection);
-        balancedBST(collection, 0, collection.length - 1);
-        size = collection.length;
+        this(Balancing.NONE);
+        E[] sorted = Arrays.copyOf(collection, collection.length);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++)
+        {
+            if (sorted[i] == null)
+            {
+                throw new NullPointerException("null value found");
+            }
+            if (distinct == 0 || sorted[i].compareTo(sorted[distinct - 1]) != 0)
+            {
+                sorted[distinct] = sorted[i];
+                distinct++;
+            }
+        }
+        loadSorted(Arrays.asList(sorted).iterator(), distinct);
+    }
+
+    /**
+     * Creates a perfectly balanced BST from an array that is already sorted in strictly increasing
+     * order. No comparisons are made, so the order is trusted rather than checked.
+     *
+     * @param sorted the sorted elements, which are not modified
+     * @param <T> the data type stored in the nodes of the BST
+     * @return a BST holding the elements of the array
+     */
+    public static <T extends Comparable<T>> BST<T> fromSorted(T[] sorted)
+    {
+        return fromSorted(Arrays.asList(sorted).iterator(), sorted.length);
+    }
+
+    /**
+     * Creates a perfectly balanced BST from a list that is already sorted in strictly increasing
+     * order. No comparisons are made, so the order is trusted rather than checked.
+     *
+     * @param sorted the sorted elements, which are not modified
+     * @param <T> the data type stored in the nodes of the BST
+     * @return a BST holding the elements of the list
+     */
+    public static <T extends Comparable<T>> BST<T> fromSorted(List<? extends T> sorted)
+    {
+        return fromSorted(sorted.iterator(), sorted.size());
+    }
+
+    /**
+     * Creates a perfectly balanced BST from the next count elements of an iterator, which must
+     * return them in strictly increasing order. No comparisons are made, so the order is trusted
+     * rather than checked.
+     *
+     * @param sorted the iterator returning the sorted elements
+     * @param count the number of elements to take from the iterator
+     * @param <T> the data type stored in the nodes of the BST
+     * @return a BST holding the elements taken from the iterator
+     */
+    public static <T extends Comparable<T>> BST<T> fromSorted(Iterator<? extends T> sorted, int count)
+    {
+        BST<T> tree = new BST<T>();
+        tree.loadSorted(sorted, count);
+        return tree;
+    }
+
+    /**
+     * Replaces the contents of this BST with the next count elements of an iterator, which must return
+     * them in strictly increasing order. The tree is built in O(count) time with its height and subtree
+     * sizes written directly, and the result is perfectly balanced (so also a valid AVL tree).
+     *
+     * @param sorted the iterator returning the sorted elements
+     * @param count the number of elements to take from the iterator
+     */
+    protected void loadSorted(Iterator<? extends E> sorted, int count)
+    {
+        if (count < 0)
+        {
+            throw new IllegalArgumentException("count cannot be negative");
+        }
+        contentHash = 0;
+        contentHashStale = false;
+        root = buildSorted(sorted, count);
+        size = count;
+        modCount++;
+    }
 
+    /**
+     * Recursive helper method for loadSorted that builds a subtree from the next count elements of the
+     * iterator, taking the left subtree's elements first, then the middle one, then the right subtree's.
+     * The recursion depth is logarithmic since every subtree is perfectly balanced.
+     *
+     * @param sorted the iterator returning the sorted elements
+     * @param count the number of elements in the subtree being built
+     * @return the root of the subtree built
+     */
+    private Node buildSorted(Iterator<? extends E> sorted, int count)
+    {
+        if (count == 0)
+        {
+            return null;
+        }
+        int leftCount = (count - 1) / 2;
+        Node left = buildSorted(sorted, leftCount);
+        E data = sorted.next();
+        if (data == null)
+        {
+            throw new NullPointerException("null value found");
+        }
+        contentHash += data.hashCode();
+        Node node = new Node(data);
+        node.left = left;
+        node.right = buildSorted(sorted, count - 1 - leftCount);
+        node.updateHeight();
+        node.leftTreeSize = leftCount;
+        node.sizeSubTrees = count - 1;
+        return node;
     }
 
     /**
@@ -173,67 +416,73 @@ public class BST<E extends Comparable<E>>
     }
 
 
-    private Boolean added;
     /**
-     * The add method for adding an element to this BST (doesn't add duplicates).
-     *
-     * @param data the element to be added
-     * @return true if the element was able ot be added; otherwise,
-     *         false
+     * Recomputes the height and subtree sizes of every node in this BST from the bottom up, for trees
+     * whose shape was linked together directly instead of through add. Uses the postorder iterator so
+     * that both children of a node are always updated before the node itself.
      */
-    public boolean add(E data)
+    protected void updateAllNodes()
     {
-        added = false;
-        if (data == null)
-        {
-            throw new NullPointerException ("null value found");
-        }
-        root = add(data, root);
-        if (added)
+        PostOrderIterator iterator = new PostOrderIterator(root);
+        while (iterator.hasNext())
         {
-            size++;
-            root.updateHeight();
-            root.updateLeftTreeSize();
+            Node node = iterator.advance();
+            node.updateHeight();
+            node.updateLeftTreeSize();
         }
-        return added;
     }
 
     /**
-     * Recursive helper method for add.
+     * The add method for adding an element to this BST (doesn't add duplicates). The search runs in a
+     * loop and records its path on an explicit stack, which is then walked back up to update the nodes,
+     * so even a degenerate tree cannot overflow the call stack.
      *
      * @param data the element to be added
-     * @param node the current node in the recursive iteration
-     * @return a node with the added node in its subtree, if able to be added
+     * @return true if the element was able ot be added; otherwise,
+     *         false
      */
-    private Node add(E data, Node node)
+    public boolean add(E data)
     {
-        if (node == null)
+        if (data == null)
         {
-            added = true;
-            return new Node(data);
+            throw new NullPointerException ("null value found");
         }
-        if (data.compareTo(node.data) < 0 )
+        ArrayDeque<Node> path = new ArrayDeque<Node>();
+        Node cur = root;
+        int compare = 0;
+        while (cur != null)
         {
-            node.left = add(data, node.left);
-            node.updateHeight();
-            node.updateLeftTreeSize();
+            compare = data.compareTo(cur.data);
+            if (compare == 0)
+            {
+                return false;
+            }
+            path.push(cur);
+            cur = (compare < 0) ? cur.left : cur.right;
         }
-        else if (data.compareTo(node.data) > 0)
+        Node node = new Node(data);
+        if (path.isEmpty())
         {
-            node.right = add(data, node.right);
-            node.updateHeight();
-            node.updateLeftTreeSize();
+            root = node;
+        }
+        else if (compare < 0)
+        {
+            path.peek().left = node;
         }
         else
         {
-            added = false;
+            path.peek().right = node;
         }
-        return node;
+        size++;
+        contentHash += data.hashCode();
+        modCount++;
+        retrace(path);
+        return true;
     }
 
-    private Boolean found;
     /**
-     * Removes a certain element from the BST, if already contained in the tree.
+     * Removes a certain element from the BST, if already contained in the tree. Like add, the search
+     * runs in a loop with an explicit path stack instead of recursion.
      *
      * @param o the element to be removed
      * @return true if the element was able to be removed; otherwise,
@@ -241,102 +490,190 @@ public class BST<E extends Comparable<E>>
      */
     public boolean remove (Object o)
     {
-        E target = null;
+        if (o == null)
+        {
+            throw new NullPointerException("null value found");
+        }
+        ArrayDeque<Node> path = new ArrayDeque<Node>();
+        Node cur = root;
         try
         {
-            target = (E) o;
+            E target = (E) o;
+            while (cur != null)
+            {
+                int compare = target.compareTo(cur.data);
+                if (compare == 0)
+                {
+                    break;
+                }
+                path.push(cur);
+                cur = (compare < 0) ? cur.left : cur.right;
+            }
         }
         catch(ClassCastException e)
         {
             System.out.println("removed element must be of proper type");
+            return false;
         }
-        root = remove(target, root);
-        if (found)
+        if (cur == null)
         {
-            size--;
-            root.updateHeight();
-            root.updateLeftTreeSize();
+            return false;
         }
-        return found;
+        contentHash -= cur.data.hashCode();
+        removeNode(cur, path);
+        size--;
+        modCount++;
+        retrace(path);
+        return true;
     }
 
     /**
-     * Recursive helper method for remove method.
+     * Helper method for remove method that actually unlinks a node from the BST with 3 cases; a leaf,
+     * a node with only one child, or a node with two children (in which case the predecessor's data is
+     * moved into the node and the predecessor's node is unlinked instead).
      *
-     * @param target the element to be removed
-     * @param node the current node in the recursive iteration
-     * @return a node with either the required node removed in its subtrees or unchanged
+     * @param node the node in the BST to be removed
+     * @param path the ancestors of the node, closest on top, which is extended down to the node whose
+     *             subtree actually changed
      */
-    private Node remove(E target, Node node)
+    private void removeNode(Node node, ArrayDeque<Node> path)
     {
-        if (node == null)
+        if (node.left == null)
         {
-            found = false;
-            return null;
-
+            replaceChild(path.peek(), node, node.right);
         }
-        if (target.compareTo(node.data) > 0)
+        else if (node.right == null)
         {
-            node.right = remove(target, node.right);
-            node.updateHeight();
-            node.updateLeftTreeSize();
+            replaceChild(path.peek(), node, node.left);
         }
-        else if (target.compareTo(node.data) < 0)
+        else
+        {
+            path.push(node);
+            Node predecessor = node.left;
+            while (predecessor.right != null)
+            {
+                path.push(predecessor);
+                predecessor = predecessor.right;
+            }
+            node.data = predecessor.data;
+            replaceChild(path.peek(), predecessor, predecessor.left);
+        }
+    }
+
+    /**
+     * Walks back up a path of nodes after an add or remove, updating the height and subtree sizes of
+     * each one and rebalancing it, then linking the rebalanced subtree back into its parent.
+     *
+     * @param path the nodes whose subtrees changed, deepest on top
+     */
+    private void retrace(ArrayDeque<Node> path)
+    {
+        while (!path.isEmpty())
         {
-            node.left = remove(target, node.left);
+            Node node = path.pop();
             node.updateHeight();
             node.updateLeftTreeSize();
+            Node balanced = rebalance(node);
+            if (balanced != node)
+            {
+                replaceChild(path.peek(), node, balanced);
+            }
+        }
+    }
+
+    /**
+     * Replaces a child of a node with another subtree.
+     *
+     * @param parent the parent of the child being replaced, or null if the child is the root
+     * @param child the child being replaced
+     * @param replacement the subtree taking the child's place
+     */
+    private void replaceChild(Node parent, Node child, Node replacement)
+    {
+        if (parent == null)
+        {
+            root = replacement;
+        }
+        else if (parent.left == child)
+        {
+            parent.left = replacement;
         }
         else
         {
-            node = removeNode(node);
-            found = true;
+            parent.right = replacement;
         }
-        return node;
     }
 
     /**
-     * Helper method for remove method that actually removes a node from the BST with 3 cases; a leaf,
-     * a node with only one child, or a node with two children (in which case the predecessor must be found).
+     * Restores the AVL height invariant at a node whose subtrees are already balanced, using single or
+     * double rotations. Trees built without balancing are returned unchanged, so that their shape stays
+     * exactly the order in which elements were added.
      *
-     * @param node the node in the BST to be removed
-     * @return a node with either the required node removed in its subtrees or unchanged
+     * @param node the node to be rebalanced, whose height and subtree sizes are up to date
+     * @return the root of the rebalanced subtree
      */
-    private Node removeNode(Node node) {
-        E data;
-        if (node.left == null)
+    protected Node rebalance(Node node)
+    {
+        if (balancing != Balancing.AVL || node == null)
         {
-            return node.right;
+            return node;
         }
-        else if (node.right == null)
+        int balance = node.balanceFactor();
+        if (balance > 1)
         {
-            return node.left;
+            if (node.left.balanceFactor() < 0)
+            {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
         }
-        else
+        if (balance < -1)
         {
-            data = getPredecessor(node.left);
-            node.data = data;
-            node.left = remove(data, node.left);
-            return node;
+            if (node.right.balanceFactor() > 0)
+            {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
         }
+        return node;
+    }
+
+    /**
+     * Rotates the subtree rooted at a node to the right, so that its left child becomes the new root.
+     * The height and subtree sizes of both nodes involved are updated, lower node first.
+     *
+     * @param node the root of the subtree to be rotated
+     * @return the new root of the subtree
+     */
+    protected Node rotateRight(Node node)
+    {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        node.updateHeight();
+        node.updateLeftTreeSize();
+        pivot.updateHeight();
+        pivot.updateLeftTreeSize();
+        return pivot;
     }
 
     /**
-     * Helper method for remove method that obtains the predecessor of the BST
-     * in the case that the removed node has two children.
+     * Rotates the subtree rooted at a node to the left, so that its right child becomes the new root.
+     * The height and subtree sizes of both nodes involved are updated, lower node first.
      *
-     * @param left the node from which to start searching for the predecessor (the
-     *             node being removed)
-     * @return the predecessor element
+     * @param node the root of the subtree to be rotated
+     * @return the new root of the subtree
      */
-    private E getPredecessor(Node left)
+    protected Node rotateLeft(Node node)
     {
-        if (left == null)
-            throw new NullPointerException("getPredecessor called with an empty subtree");
-        Node temp = left;
-        while (temp.right != null)
-            temp = temp.right;
-        return temp.data;
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        node.updateHeight();
+        node.updateLeftTreeSize();
+        pivot.updateHeight();
+        pivot.updateLeftTreeSize();
+        return pivot;
     }
 
     /**
@@ -522,68 +859,448 @@ public class BST<E extends Comparable<E>>
     }
 
     /**
-     * Makes this BST empty, also resetting the size.
+     * Finds the smallest element in this tree greater than (or equal to) the given element, without
+     * any of the argument checks of ceiling and higher. A null element stands for no bound at all, so
+     * that the first element can be found with the same single lookup.
+     *
+     * @param e the element being compared to, or null to find the first element
+     * @param inclusive whether an element equal to e can be returned
+     * @return the smallest element greater than (or equal to) e, or null if there is none
      */
-    public void clear()
+    protected E findCeiling(E e, boolean inclusive)
     {
-        root = null;
-        size = 0;
+        Node cur = root;
+        Node ceiling = null;
+        while (cur != null)
+        {
+            int compare = (e == null) ? -1 : e.compareTo(cur.data);
+            if (compare < 0 || (compare == 0 && inclusive))
+            {
+                ceiling = cur;
+                cur = cur.left;
+            }
+            else
+            {
+                cur = cur.right;
+            }
+        }
+        return (ceiling == null) ? null : ceiling.data;
     }
 
     /**
-     * Checks if the BST contains a certain element.
+     * Finds the biggest element in this tree less than (or equal to) the given element, without
+     * any of the argument checks of floor and lower. A null element stands for no bound at all, so
+     * that the last element can be found with the same single lookup.
      *
-     * @param o the element being searched for
-     * @return true if the BST contains 0; otherwise,
-     *         false
+     * @param e the element being compared to, or null to find the last element
+     * @param inclusive whether an element equal to e can be returned
+     * @return the biggest element less than (or equal to) e, or null if there is none
      */
-    public boolean contains(Object o)
+    protected E findFloor(E e, boolean inclusive)
     {
-        if (o == null)
-        {
-            throw new NullPointerException("object cannot be null");
-        }
-        try
-        {
-            E other = (E) o;
-            return containsRec(other, root);
-        }
-        catch(ClassCastException e)
+        Node cur = root;
+        Node floor = null;
+        while (cur != null)
         {
-            System.out.println("object in contains method is not of proper type");
+            int compare = (e == null) ? 1 : e.compareTo(cur.data);
+            if (compare > 0 || (compare == 0 && inclusive))
+            {
+                floor = cur;
+                cur = cur.right;
+            }
+            else
+            {
+                cur = cur.left;
+            }
         }
-        return false;
+        return (floor == null) ? null : floor.data;
     }
 
     /**
-     * Recursive helper method for contains.
+     * Answers a batch of ceiling queries, writing the smallest element greater than or equal to
+     * probes[i] into results[i]. When the probes are sorted, each search starts from the deepest node of
+     * the previous search that the new probe still passes through instead of from the root, so k sorted
+     * probes cost O(k log(n/k)) on a balanced tree rather than O(k log n).
      *
-     * @param e the element being searched for
-     * @param node the current node in the recursive iteration
-     * @return true if the BST contains 0; otherwise,
-     *         false
+     * @param probes the elements being compared to, preferably in increasing order
+     * @param results the array receiving the answers, or null where there is none
      */
-    private boolean containsRec(E e, Node node)
+    public void ceilingAll(E[] probes, E[] results)
     {
-        if (node == null)
-        {
-            return false;
-        }
-        else if (node.data.compareTo(e) == 0)
-        {
-            return true;
+        findAll(probes, results, true, true);
+    }
+
+    /**
+     * Answers a batch of higher queries, writing the smallest element greater than probes[i] into
+     * results[i]. Sorted probes are answered with finger search, as in ceilingAll.
+     *
+     * @param probes the elements being compared to, preferably in increasing order
+     * @param results the array receiving the answers, or null where there is none
+     */
+    public void higherAll(E[] probes, E[] results)
+    {
+        findAll(probes, results, false, true);
+    }
+
+    /**
+     * Answers a batch of floor queries, writing the biggest element less than or equal to probes[i] into
+     * results[i]. Sorted probes are answered with finger search, as in ceilingAll.
+     *
+     * @param probes the elements being compared to, preferably in increasing order
+     * @param results the array receiving the answers, or null where there is none
+     */
+    public void floorAll(E[] probes, E[] results)
+    {
+        findAll(probes, results, false, false);
+    }
+
+    /**
+     * Answers a batch of lower queries, writing the biggest element less than probes[i] into results[i].
+     * Sorted probes are answered with finger search, as in ceilingAll.
+     *
+     * @param probes the elements being compared to, preferably in increasing order
+     * @param results the array receiving the answers, or null where there is none
+     */
+    public void lowerAll(E[] probes, E[] results)
+    {
+        findAll(probes, results, true, false);
+    }
+
+    /**
+     * Helper method for the batch queries. The nodes of the last search path are kept on a stack along
+     * with the closest elements below and above each node's subtree. For the next probe, nodes are popped
+     * until the probe falls below the upper bound of the top node's subtree (the lower bound still holds
+     * since the probes increase), and the search resumes from there. A probe smaller than the one before
+     * starts again from the root. The stacks are allocated once per batch, never per probe.
+     *
+     * @param probes the elements being compared to
+     * @param results the array receiving the answers
+     * @param leftOnEqual whether the search goes left at a node equal to the probe
+     * @param upward true to answer with the closest element above the search path, false for below
+     */
+    private void findAll(E[] probes, E[] results, boolean leftOnEqual, boolean upward)
+    {
+        if (results.length < probes.length)
+        {
+            throw new IllegalArgumentException("results array must be at least as long as the probes array");
+        }
+        int capacity = (root == null) ? 0 : root.height;
+        ArrayList<Node> nodes = new ArrayList<Node>(capacity);
+        ArrayList<Node> lows = new ArrayList<Node>(capacity);
+        ArrayList<Node> highs = new ArrayList<Node>(capacity);
+        E previous = null;
+        for (int i = 0; i < probes.length; i++)
+        {
+            E probe = probes[i];
+            if (probe == null)
+            {
+                throw new NullPointerException("bound cannot be called with an empty value");
+            }
+            if (previous != null && probe.compareTo(previous) < 0)
+            {
+                nodes.clear();
+                lows.clear();
+                highs.clear();
+            }
+            previous = probe;
+            while (!nodes.isEmpty())
+            {
+                Node high = highs.get(highs.size() - 1);
+                if (high == null || goesLeft(probe, high, leftOnEqual))
+                {
+                    break;
+                }
+                nodes.remove(nodes.size() - 1);
+                lows.remove(lows.size() - 1);
+                highs.remove(highs.size() - 1);
+            }
+            if (nodes.isEmpty())
+            {
+                if (root == null)
+                {
+                    results[i] = null;
+                    continue;
+                }
+                nodes.add(root);
+                lows.add(null);
+                highs.add(null);
+            }
+            Node cur = nodes.get(nodes.size() - 1);
+            Node low = lows.get(lows.size() - 1);
+            Node high = highs.get(highs.size() - 1);
+            while (cur != null)
+            {
+                if (goesLeft(probe, cur, leftOnEqual))
+                {
+                    high = cur;
+                    cur = cur.left;
+                }
+                else
+                {
+                    low = cur;
+                    cur = cur.right;
+                }
+                if (cur != null)
+                {
+                    nodes.add(cur);
+                    lows.add(low);
+                    highs.add(high);
+                }
+            }
+            Node answer = upward ? high : low;
+            results[i] = (answer == null) ? null : answer.data;
+        }
+    }
+
+    /**
+     * Helper method for findAll that decides which way the search for a probe goes at a node.
+     *
+     * @param probe the element being searched for
+     * @param node the node being compared to
+     * @param leftOnEqual whether the search goes left at a node equal to the probe
+     * @return true if the search goes to the left child; otherwise,
+     *         false
+     */
+    private boolean goesLeft(E probe, Node node, boolean leftOnEqual)
+    {
+        int compare = probe.compareTo(node.data);
+        return compare < 0 || (compare == 0 && leftOnEqual);
+    }
+
+    /**
+     * Removes and returns the first, or lowest, element in this BST.
+     *
+     * @return the least element, or null if this BST is empty
+     */
+    public E pollFirst()
+    {
+        if (isEmpty())
+        {
+            return null;
+        }
+        E first = first();
+        remove(first);
+        return first;
+    }
+
+    /**
+     * Removes and returns the last, or highest, element in this BST.
+     *
+     * @return the greatest element, or null if this BST is empty
+     */
+    public E pollLast()
+    {
+        if (isEmpty())
+        {
+            return null;
+        }
+        E last = last();
+        remove(last);
+        return last;
+    }
+
+    /**
+     * Obtains the comparator ordering this BST, which is always the natural ordering of its elements.
+     *
+     * @return null, since elements are compared with compareTo
+     */
+    public Comparator<? super E> comparator()
+    {
+        return null;
+    }
+
+    /**
+     * Obtains a live view of the elements of this BST between two bounds. The view seeks to its lower
+     * bound in O(height) and only ever visits the elements inside the range.
+     *
+     * @param fromElement the lower bound of the view
+     * @param fromInclusive whether the lower bound itself is part of the view
+     * @param toElement the upper bound of the view
+     * @param toInclusive whether the upper bound itself is part of the view
+     * @return the view of the elements in the range
+     */
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive)
+    {
+        if (fromElement == null || toElement == null)
+        {
+            throw new NullPointerException("subSet cannot be called with an empty value");
+        }
+        if (fromElement.compareTo(toElement) > 0)
+        {
+            throw new IllegalArgumentException("lower bound of subSet is bigger than its upper bound");
+        }
+        return new SubSet(false, fromElement, fromInclusive, false, toElement, toInclusive, false);
+    }
+
+    /**
+     * Obtains a live view of the elements of this BST less than (or equal to) a bound.
+     *
+     * @param toElement the upper bound of the view
+     * @param inclusive whether the upper bound itself is part of the view
+     * @return the view of the elements below the bound
+     */
+    public NavigableSet<E> headSet(E toElement, boolean inclusive)
+    {
+        if (toElement == null)
+        {
+            throw new NullPointerException("headSet cannot be called with an empty value");
+        }
+        return new SubSet(true, null, false, false, toElement, inclusive, false);
+    }
+
+    /**
+     * Obtains a live view of the elements of this BST greater than (or equal to) a bound.
+     *
+     * @param fromElement the lower bound of the view
+     * @param inclusive whether the lower bound itself is part of the view
+     * @return the view of the elements above the bound
+     */
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive)
+    {
+        if (fromElement == null)
+        {
+            throw new NullPointerException("tailSet cannot be called with an empty value");
+        }
+        return new SubSet(false, fromElement, inclusive, true, null, false, false);
+    }
+
+    /**
+     * Obtains a live view of the elements of this BST from a bound (inclusive) up to another (exclusive).
+     *
+     * @param fromElement the inclusive lower bound of the view
+     * @param toElement the exclusive upper bound of the view
+     * @return the view of the elements in the range
+     */
+    public SortedSet<E> subSet(E fromElement, E toElement)
+    {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    /**
+     * Obtains a live view of the elements of this BST less than a bound.
+     *
+     * @param toElement the exclusive upper bound of the view
+     * @return the view of the elements below the bound
+     */
+    public SortedSet<E> headSet(E toElement)
+    {
+        return headSet(toElement, false);
+    }
+
+    /**
+     * Obtains a live view of the elements of this BST greater than or equal to a bound.
+     *
+     * @param fromElement the inclusive lower bound of the view
+     * @return the view of the elements above the bound
+     */
+    public SortedSet<E> tailSet(E fromElement)
+    {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Obtains a live view of the elements of this BST in reverse order.
+     *
+     * @return the descending view
+     */
+    public NavigableSet<E> descendingSet()
+    {
+        return new SubSet(true, null, false, true, null, false, true);
+    }
+
+    /**
+     * Creates an iterator object for this BST which accesses the trees elements from the greatest to
+     * the least.
+     *
+     * @return the descending iterator
+     */
+    public Iterator<E> descendingIterator()
+    {
+        return rangeIterator(true, null, false, null, false);
+    }
+
+    /**
+     * Creates a lazy iterator over the elements of this BST between a start and an end bound, which the
+     * descending iterator and the range views are built on.
+     *
+     * @param descending whether the elements are visited from the greatest to the least
+     * @param start the bound the iteration starts from, or null to start at the first element
+     * @param startInclusive whether the start bound itself can be visited
+     * @param end the bound the iteration stops at, or null to run to the last element
+     * @param endInclusive whether the end bound itself can be visited
+     * @return the range iterator
+     */
+    protected Iterator<E> rangeIterator(boolean descending, E start, boolean startInclusive, E end,
+                                        boolean endInclusive)
+    {
+        return new RangeIterator(descending, start, startInclusive, end, endInclusive);
+    }
+
+    /**
+     * Makes this BST empty, also resetting the size.
+     */
+    public void clear()
+    {
+        root = null;
+        size = 0;
+        contentHash = 0;
+        contentHashStale = false;
+        modCount++;
+    }
+
+    /**
+     * Checks if the BST contains a certain element.
+     *
+     * @param o the element being searched for
+     * @return true if the BST contains 0; otherwise,
+     *         false
+     */
+    public boolean contains(Object o)
+    {
+        if (o == null)
+        {
+            throw new NullPointerException("object cannot be null");
+        }
+        try
+        {
+            E other = (E) o;
+            return findNode(other) != null;
+        }
+        catch(ClassCastException e)
+        {
+            System.out.println("object in contains method is not of proper type");
         }
-        if (node.data.compareTo(e) > 0)
+        return false;
+    }
+
+    /**
+     * Helper method for contains that finds the node holding an element with a loop.
+     *
+     * @param e the element being searched for
+     * @return the node holding e, or null if the BST doesn't contain e
+     */
+    protected Node findNode(E e)
+    {
+        Node cur = root;
+        while (cur != null)
         {
-            return containsRec(e, node.left);
+            int compare = e.compareTo(cur.data);
+            if (compare == 0)
+            {
+                return cur;
+            }
+            cur = (compare < 0) ? cur.left : cur.right;
         }
-        return containsRec(e, node.right);
+        return null;
     }
 
     /**
-     * Checks if this BST's elements are the same as another BST's elements.
+     * Checks if this BST's elements are the same as another BST's elements. Trees of different sizes or
+     * hash codes are rejected at once; otherwise both trees are walked in lock-step, stopping at the first
+     * difference. Any other Set is compared by size and containsAll, as AbstractSet does, so that equals
+     * stays symmetric with the other Set implementations.
      *
-     * @param obj the other BST being compared to
+     * @param obj the other set being compared to
      * @return true if the elements are the same; otherwise,
      *         false
      */
@@ -593,13 +1310,17 @@ public class BST<E extends Comparable<E>>
         {
             return true;
         }
-        if (obj == null || !(obj instanceof BST))
+        if (!(obj instanceof BST))
         {
-            return false;
+            return super.equals(obj);
         }
         BST<E> compare = (BST<E>) obj;
-        InOrderIterator<E> current = new InOrderIterator<E>(root);
-        InOrderIterator<E> other = new InOrderIterator<E>(compare.root);
+        if (size() != compare.size() || hashCode() != compare.hashCode())
+        {
+            return false;
+        }
+        InOrderIterator current = new InOrderIterator(root);
+        InOrderIterator other = new InOrderIterator(compare.root);
         while (current.hasNext())
         {
             if (!other.hasNext() || current.next().equals(other.next()) == false)
@@ -614,6 +1335,30 @@ public class BST<E extends Comparable<E>>
         return true;
     }
 
+    /**
+     * Obtains the hash code of this BST, the sum of its elements' hash codes as for any other Set. The sum
+     * is kept up to date by add and remove, so this is O(1), except after a split, where the halves are
+     * summed on their first call since the sum of neither half is known.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        if (contentHashStale)
+        {
+            int hash = 0;
+            InOrderIterator iterator = new InOrderIterator(root);
+            while (iterator.hasNext())
+            {
+                hash += iterator.next().hashCode();
+            }
+            contentHash = hash;
+            contentHashStale = false;
+        }
+        return contentHash;
+    }
+
     /**
      * Obtains the size of this BST.
      * @return the size
@@ -694,320 +1439,2064 @@ public class BST<E extends Comparable<E>>
         {
             throw new IndexOutOfBoundsException("index in get method must be between 0 and size");
         }
-        return getRec(root, index);
+        return select(index);
     }
 
     /**
-     * Recursive helper method for get method that utilizes the left subtree size data field of the BST nodes
+     * Obtains the element with a certain rank, meaning the number of smaller elements in this BST, by
+     * walking down from the root with the left subtree sizes stored in the nodes. Runs in O(height).
      *
-     * @param node the current node in the recursive iteration
-     * @param index the index in the inorder traversal of the tree being obtained from
-     * @return the element at index
+     * @param index the rank of the element, between 0 and size - 1
+     * @return the element with the given rank
      */
-    public E getRec(Node node, int index)
+    public E select(int index)
     {
-        if (index == node.leftTreeSize)
-        {
-            return node.data;
-        }
-        if (index < node.leftTreeSize)
+        if (index < 0 || index >= size)
         {
-            return getRec(node.left, index);
+            throw new IndexOutOfBoundsException("index in select method must be between 0 and size");
         }
-        return getRec(node.right, index - node.leftTreeSize - 1);
+        return getRec(root, index);
     }
 
     /**
-     * Creates an iterator object for this BST which accesses the trees elements in an inorder traversal.
+     * Obtains the rank of an element, meaning the number of elements in this BST smaller than it. The
+     * element does not have to be in the tree. Runs in O(height).
      *
-     * @return the inorder iterator
+     * @param e the element whose rank is wanted
+     * @return the number of elements smaller than e
      */
-    public Iterator<E> iterator()
+    public int rank(E e)
     {
-        return new InOrderIterator<E>(root);
+        if (e == null)
+        {
+            throw new NullPointerException("rank cannot be called with an empty value");
+        }
+        return countBelow(e, false);
     }
 
     /**
-     * Creates an iterator object for this BST which accesses the trees elements in a preorder traversal.
+     * Counts the elements of this BST between two bounds, both inclusive. Runs in O(height).
      *
-     * @return the preorder iterator
+     * @param lo the lower bound of the range
+     * @param hi the upper bound of the range
+     * @return the number of elements e with lo <= e <= hi, or 0 if lo is bigger than hi
      */
-    public Iterator<E> preorderIterator()
+    public int countRange(E lo, E hi)
     {
-        return new PreOrderIterator<E>(root);
+        if (lo == null || hi == null)
+        {
+            throw new NullPointerException("countRange cannot be called with an empty value");
+        }
+        if (lo.compareTo(hi) > 0)
+        {
+            return 0;
+        }
+        return countBelow(hi, true) - countBelow(lo, false);
     }
 
     /**
-     * Creates an iterator object for this BST which accesses the trees elements in a postorder traversal.
+     * Counts the elements of this BST smaller than (or equal to) a given element, adding up the left
+     * subtree sizes along the search path.
      *
-     * @return the postorder iterator
+     * @param e the element being compared to
+     * @param inclusive whether elements equal to e are counted as well
+     * @return the number of elements smaller than e, or smaller than or equal to e if inclusive
      */
-    public Iterator<E> postorderIterator()
+    protected int countBelow(E e, boolean inclusive)
     {
-        return new PostOrderIterator<E>(root);
+        int count = 0;
+        Node cur = root;
+        while (cur != null)
+        {
+            int compare = e.compareTo(cur.data);
+            if (compare < 0 || (compare == 0 && !inclusive))
+            {
+                cur = cur.left;
+            }
+            else
+            {
+                count += cur.leftTreeSize + 1;
+                cur = cur.right;
+            }
+        }
+        return count;
     }
 
     /**
-     * Creates a string representation of this BST on a single line.
+     * Counts the elements of this BST between two bounds, either of which can be left out.
      *
-     * @return the toString
+     * @param lo the lower bound, or null for no lower bound
+     * @param loInclusive whether an element equal to lo is counted
+     * @param hi the upper bound, or null for no upper bound
+     * @param hiInclusive whether an element equal to hi is counted
+     * @return the number of elements between lo and hi
      */
-    @Override
-    public String toString()
+    protected int countBetween(E lo, boolean loInclusive, E hi, boolean hiInclusive)
     {
-        String s = "";
-        InOrderIterator<E> iterator = new InOrderIterator<E>(root);
-        for (int i = 0; i < size; i++)
-        {
-            s += String.valueOf(iterator.next()) + ", ";
-        }
-        return "[" + s + "]";
+        int below = (lo == null) ? 0 : countBelow(lo, !loInclusive);
+        int upTo = (hi == null) ? size : countBelow(hi, hiInclusive);
+        return Math.max(0, upTo - below);
     }
 
     /**
-     * Creates a string representation of this BST on more than one line in a shape that
-     * more accurately models the BST.
+     * Removes and returns the least or greatest element of this BST between two bounds, either of which
+     * can be left out. The range views poll through this method, so that the search and the removal can
+     * be made one atomic step.
      *
-     * @return the advanced toString
+     * @param lo the lower bound, or null for no lower bound
+     * @param loInclusive whether an element equal to lo can be removed
+     * @param hi the upper bound, or null for no upper bound
+     * @param hiInclusive whether an element equal to hi can be removed
+     * @param highest true to remove the greatest element in range, false to remove the least
+     * @return the element removed, or null if there is none between lo and hi
      */
-    public String toStringTreeFormat()
+    protected E pollBetween(E lo, boolean loInclusive, E hi, boolean hiInclusive, boolean highest)
     {
-        StringBuffer sb = new StringBuffer();
-        toStringTreeFormatHelper(sb, root, 0);
-        return sb.toString();
+        E e = highest ? findFloor(hi, hiInclusive) : findCeiling(lo, loInclusive);
+        if (e == null || !isBetween(e, lo, loInclusive, hi, hiInclusive))
+        {
+            return null;
+        }
+        remove(e);
+        return e;
     }
 
     /**
-     * Recursive helper method for toStringTreeFormat.
+     * Checks if an element lies between two bounds, either of which can be left out.
      *
-     * @param sb a StringBuffer object used to create the toString
-     * @param node the node in the current recursive iteration
-     * @param level the level of the tree
+     * @param e the element being checked
+     * @param lo the lower bound, or null for no lower bound
+     * @param loInclusive whether an element equal to lo is between the bounds
+     * @param hi the upper bound, or null for no upper bound
+     * @param hiInclusive whether an element equal to hi is between the bounds
+     * @return true if e is between lo and hi; otherwise,
+     *         false
      */
-    private void toStringTreeFormatHelper(StringBuffer sb, Node node, int level) {
-        //display the node
-        if (level > 0 ) {
-            for (int i = 0; i < level-1; i++) {
-                sb.append("   ");
+    protected boolean isBetween(E e, E lo, boolean loInclusive, E hi, boolean hiInclusive)
+    {
+        if (lo != null)
+        {
+            int compare = e.compareTo(lo);
+            if (compare < 0 || (compare == 0 && !loInclusive))
+            {
+                return false;
             }
-            sb.append("|--");
         }
-        if (node == null) {
-            sb.append( "->\n");
-            return;
-        }
-        else {
-            sb.append( node.data + "\n");
+        if (hi != null)
+        {
+            int compare = e.compareTo(hi);
+            if (compare > 0 || (compare == 0 && !hiInclusive))
+            {
+                return false;
+            }
         }
-
-        //display the left subtree
-        toStringTreeFormatHelper(sb, node.left, level+1);
-        //display the right subtree
-        toStringTreeFormatHelper(sb, node.right, level+1);
+        return true;
     }
 
     /**
-     * An inorder iterator for this BST class, represented by a list.
+     * Helper method for get method that utilizes the left subtree size data field of the BST nodes,
+     * walking down from a node with a loop.
      *
-     * @param <E> the type of the iterator (same as the BST)
-     *
-     * @author Shrey Khater
-     * @version 12/5/22
+     * @param node the node whose subtree is searched
+     * @param index the index in the inorder traversal of the subtree being obtained from
+     * @return the element at index
      */
-    public class InOrderIterator<E> implements Iterator<E> {
-        ArrayList<E> list = new ArrayList<E>();
-        int current = 0;
+    public E getRec(Node node, int index)
+    {
+        while (index != node.leftTreeSize)
+        {
+            if (index < node.leftTreeSize)
+            {
+                node = node.left;
+            }
+            else
+            {
+                index -= node.leftTreeSize + 1;
+                node = node.right;
+            }
+        }
+        return node.data;
+    }
+
+    /**
+     * Adds every element of a collection to this BST. When the collection is a sorted set in natural
+     * order and large enough that adding its elements one by one would cost more than a rebuild, the
+     * two sorted sequences are merged in O(n + m) and the tree is rebuilt balanced from the result.
+     *
+     * @param c the elements to be added
+     * @return true if this BST changed; otherwise,
+     *         false
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c)
+    {
+        if (isNaturallySorted(c) && mergePays(c.size()))
+        {
+            return mergeSorted(c.iterator());
+        }
+        return super.addAll(c);
+    }
+
+    /**
+     * Checks if a collection iterates its elements in strictly increasing natural order.
+     *
+     * @param c the collection to be checked
+     * @return true if c is a sorted set without a comparator; otherwise,
+     *         false
+     */
+    protected boolean isNaturallySorted(Collection<?> c)
+    {
+        return c instanceof SortedSet && ((SortedSet<?>) c).comparator() == null;
+    }
+
+    /**
+     * Checks if merging a number of sorted elements into this BST and rebuilding it is cheaper than
+     * adding them one by one, by comparing n + m against m times the current height.
+     *
+     * @param count the number of elements to be added
+     * @return true if a merge is cheaper; otherwise,
+     *         false
+     */
+    protected boolean mergePays(int count)
+    {
+        return root != null && (long) count * root.height >= (long) size + count;
+    }
+
+    /**
+     * Merges elements arriving in strictly increasing order into this BST, then rebuilds the tree
+     * balanced in one linear pass. An element already in the tree is kept rather than replaced.
+     *
+     * @param sorted the iterator returning the sorted elements
+     * @return true if this BST changed; otherwise,
+     *         false
+     */
+    protected boolean mergeSorted(Iterator<? extends E> sorted)
+    {
+        ArrayList<E> merged = new ArrayList<E>();
+        InOrderIterator current = new InOrderIterator(root);
+        E a = current.hasNext() ? current.next() : null;
+        E b = sorted.hasNext() ? sorted.next() : null;
+        while (a != null || b != null)
+        {
+            int compare = (a == null) ? 1 : (b == null) ? -1 : a.compareTo(b);
+            if (compare <= 0)
+            {
+                merged.add(a);
+                a = current.hasNext() ? current.next() : null;
+                if (compare == 0)
+                {
+                    b = sorted.hasNext() ? sorted.next() : null;
+                }
+            }
+            else
+            {
+                merged.add(b);
+                b = sorted.hasNext() ? sorted.next() : null;
+            }
+        }
+        if (merged.size() == size)
+        {
+            return false;
+        }
+        loadSorted(merged.iterator(), merged.size());
+        return true;
+    }
+
+    /**
+     * Creates a new BST holding every element that is in this BST or in another, by merging the two
+     * inorder sequences in O(n + m) and building the result balanced.
+     *
+     * @param other the other BST
+     * @return the union, with the balancing strategy of this BST
+     */
+    public BST<E> union(BST<E> other)
+    {
+        return combine(other, true, true, true);
+    }
+
+    /**
+     * Creates a new BST holding every element that is in both this BST and another, in O(n + m).
+     *
+     * @param other the other BST
+     * @return the intersection, with the balancing strategy of this BST
+     */
+    public BST<E> intersection(BST<E> other)
+    {
+        return combine(other, false, true, false);
+    }
+
+    /**
+     * Creates a new BST holding every element of this BST that is not in another, in O(n + m).
+     *
+     * @param other the other BST
+     * @return the difference, with the balancing strategy of this BST
+     */
+    public BST<E> difference(BST<E> other)
+    {
+        return combine(other, true, false, false);
+    }
+
+    /**
+     * Helper method for the set operations that walks the inorder sequences of two BSTs in lock-step
+     * and keeps the elements in the chosen categories, then bulk-builds the result.
+     *
+     * @param other the other BST
+     * @param keepOnlyThis whether elements only in this BST are kept
+     * @param keepBoth whether elements in both BSTs are kept
+     * @param keepOnlyOther whether elements only in the other BST are kept
+     * @return the new BST
+     */
+    private BST<E> combine(BST<E> other, boolean keepOnlyThis, boolean keepBoth, boolean keepOnlyOther)
+    {
+        ArrayList<E> result = new ArrayList<E>();
+        Iterator<E> mine = iterator();
+        Iterator<E> theirs = other.iterator();
+        E a = mine.hasNext() ? mine.next() : null;
+        E b = theirs.hasNext() ? theirs.next() : null;
+        while (a != null || b != null)
+        {
+            int compare = (a == null) ? 1 : (b == null) ? -1 : a.compareTo(b);
+            if (compare < 0)
+            {
+                if (keepOnlyThis)
+                {
+                    result.add(a);
+                }
+                a = mine.hasNext() ? mine.next() : null;
+            }
+            else if (compare > 0)
+            {
+                if (keepOnlyOther)
+                {
+                    result.add(b);
+                }
+                b = theirs.hasNext() ? theirs.next() : null;
+            }
+            else
+            {
+                if (keepBoth)
+                {
+                    result.add(a);
+                }
+                a = mine.hasNext() ? mine.next() : null;
+                b = theirs.hasNext() ? theirs.next() : null;
+            }
+        }
+        BST<E> combined = new BST<E>(balancing);
+        combined.loadSorted(result.iterator(), result.size());
+        return combined;
+    }
+
+    /**
+     * Splits this BST around a key in O(height), into a tree with every element smaller than the key and
+     * a tree with every element bigger than it. The nodes of this BST are reused by the two new trees,
+     * so this BST is empty afterwards. AVL trees are split by joining the pieces cut off along the search
+     * path, which keeps both halves balanced, while unbalanced trees are cut along the path in one loop.
+     *
+     * @param key the key to split around
+     * @return the two halves, and the element equal to the key if there was one
+     */
+    public Split split(E key)
+    {
+        if (key == null)
+        {
+            throw new NullPointerException("split cannot be called with an empty value");
+        }
+        Split result;
+        if (balancing == Balancing.AVL)
+        {
+            result = splitBalanced(root, key);
+        }
+        else
+        {
+            result = splitPath(key);
+        }
+        root = null;
+        size = 0;
+        contentHash = 0;
+        contentHashStale = false;
+        modCount++;
+        return result;
+    }
+
+    /**
+     * Recursive helper method for split on AVL trees. The subtrees hanging off the search path are joined
+     * back together on either side of the key, and since an AVL tree is only O(log n) high, so is the
+     * recursion.
+     *
+     * @param node the root of the subtree being split
+     * @param key the key to split around
+     * @return the two halves of the subtree, and the element equal to the key if there was one
+     */
+    private Split splitBalanced(Node node, E key)
+    {
+        if (node == null)
+        {
+            return new Split(null, null, null);
+        }
+        int compare = key.compareTo(node.data);
+        if (compare == 0)
+        {
+            return new Split(node.left, node.data, node.right);
+        }
+        if (compare < 0)
+        {
+            Split lower = splitBalanced(node.left, key);
+            return new Split(lower.left.root, lower.key, joinBalanced(lower.right.root, node, node.right));
+        }
+        Split upper = splitBalanced(node.right, key);
+        return new Split(joinBalanced(node.left, node, upper.left.root), upper.key, upper.right.root);
+    }
+
+    /**
+     * Helper method for split on unbalanced trees that walks down the search path once, hanging every
+     * node on it onto the right spine of the smaller half or the left spine of the bigger half, then
+     * updates the moved nodes from the bottom up.
+     *
+     * @param key the key to split around
+     * @return the two halves, and the element equal to the key if there was one
+     */
+    private Split splitPath(E key)
+    {
+        Node smallRoot = null;
+        Node smallHook = null;
+        Node bigRoot = null;
+        Node bigHook = null;
+        Node smallRest = null;
+        Node bigRest = null;
+        E found = null;
+        ArrayDeque<Node> moved = new ArrayDeque<Node>();
+        Node cur = root;
+        while (cur != null)
+        {
+            int compare = key.compareTo(cur.data);
+            if (compare == 0)
+            {
+                found = cur.data;
+                smallRest = cur.left;
+                bigRest = cur.right;
+                break;
+            }
+            moved.push(cur);
+            if (compare < 0)
+            {
+                if (bigHook == null)
+                {
+                    bigRoot = cur;
+                }
+                else
+                {
+                    bigHook.left = cur;
+                }
+                bigHook = cur;
+                cur = cur.left;
+            }
+            else
+            {
+                if (smallHook == null)
+                {
+                    smallRoot = cur;
+                }
+                else
+                {
+                    smallHook.right = cur;
+                }
+                smallHook = cur;
+                cur = cur.right;
+            }
+        }
+        if (smallHook == null)
+        {
+            smallRoot = smallRest;
+        }
+        else
+        {
+            smallHook.right = smallRest;
+        }
+        if (bigHook == null)
+        {
+            bigRoot = bigRest;
+        }
+        else
+        {
+            bigHook.left = bigRest;
+        }
+        while (!moved.isEmpty())
+        {
+            Node node = moved.pop();
+            node.updateHeight();
+            node.updateLeftTreeSize();
+        }
+        return new Split(smallRoot, found, bigRoot);
+    }
+
+    /**
+     * Joins two BSTs where every element of the first is smaller than every element of the second, in
+     * O(height). The biggest element of the first tree becomes the node linking the two, and if both
+     * trees are AVL trees it is placed at the right depth of the taller tree so the result stays
+     * balanced. The nodes of both trees are reused, so both are empty afterwards. Joining is not
+     * thread-safe, even for ConcurrentBSTs: the caller has to make sure that no other thread uses
+     * either tree until join returns.
+     *
+     * @param left the tree with the smaller elements
+     * @param right the tree with the bigger elements
+     * @param <T> the data type stored in the nodes of the BSTs
+     * @return the joined tree, which is an AVL tree if both trees were and unbalanced otherwise
+     */
+    public static <T extends Comparable<T>> BST<T> join(BST<T> left, BST<T> right)
+    {
+        if (!left.isEmpty() && !right.isEmpty() && left.last().compareTo(right.first()) >= 0)
+        {
+            throw new IllegalArgumentException("every element of the left tree must be smaller than the right");
+        }
+        boolean balanced = left.balancing == Balancing.AVL && right.balancing == Balancing.AVL;
+        BST<T> joined = new BST<T>(balanced ? Balancing.AVL : Balancing.NONE);
+        joined.contentHash = left.contentHash + right.contentHash;
+        joined.contentHashStale = left.contentHashStale || right.contentHashStale;
+        if (left.isEmpty() || right.isEmpty())
+        {
+            joined.root = left.isEmpty() ? right.root : left.root;
+        }
+        else
+        {
+            T middle = left.last();
+            left.remove(middle);
+            BST<T>.Node pivot = joined.new Node(middle);
+            if (balanced)
+            {
+                joined.root = joined.joinBalanced(left.root, pivot, right.root);
+            }
+            else
+            {
+                pivot.left = left.root;
+                pivot.right = right.root;
+                pivot.updateHeight();
+                pivot.updateLeftTreeSize();
+                joined.root = pivot;
+            }
+        }
+        joined.size = joined.sizeOf(joined.root);
+        left.clear();
+        right.clear();
+        return joined;
+    }
+
+    /**
+     * Joins two AVL subtrees and a middle node whose element lies between them. The middle node is hung
+     * on the spine of the taller subtree at the first node no more than one level taller than the other
+     * subtree, and the nodes above it are rebalanced on the way back up.
+     *
+     * @param left the subtree with the smaller elements
+     * @param middle the node linking the two subtrees
+     * @param right the subtree with the bigger elements
+     * @return the root of the joined subtree
+     */
+    private Node joinBalanced(Node left, Node middle, Node right)
+    {
+        int leftHeight = (left == null) ? 0 : left.height;
+        int rightHeight = (right == null) ? 0 : right.height;
+        if (leftHeight > rightHeight + 1)
+        {
+            left.right = joinBalanced(left.right, middle, right);
+            left.updateHeight();
+            left.updateLeftTreeSize();
+            return rebalance(left);
+        }
+        if (rightHeight > leftHeight + 1)
+        {
+            right.left = joinBalanced(left, middle, right.left);
+            right.updateHeight();
+            right.updateLeftTreeSize();
+            return rebalance(right);
+        }
+        middle.left = left;
+        middle.right = right;
+        middle.updateHeight();
+        middle.updateLeftTreeSize();
+        return middle;
+    }
+
+    /**
+     * Obtains the number of nodes in the subtree of a node.
+     *
+     * @param node the root of the subtree
+     * @return the size of the subtree, or 0 for an empty subtree
+     */
+    protected int sizeOf(Node node)
+    {
+        return (node == null) ? 0 : node.sizeSubTrees + 1;
+    }
+
+    /**
+     * The result of splitting a BST around a key: a tree with the smaller elements, a tree with the
+     * bigger elements, and the element equal to the key if the BST contained one.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    public class Split
+    {
+        private final BST<E> left;
+        private final BST<E> right;
+        private final E key;
+
+        /**
+         * Constructor for the split, wrapping both halves in new BSTs with the balancing strategy of the
+         * tree that was split.
+         *
+         * @param left the root of the half with the smaller elements
+         * @param key the element equal to the key, or null if there was none
+         * @param right the root of the half with the bigger elements
+         */
+        private Split(Node left, E key, Node right)
+        {
+            this.left = new BST<E>(balancing);
+            this.left.root = left;
+            this.left.size = sizeOf(left);
+            this.left.contentHashStale = true;
+            this.right = new BST<E>(balancing);
+            this.right.root = right;
+            this.right.size = sizeOf(right);
+            this.right.contentHashStale = true;
+            this.key = key;
+        }
+
+        /**
+         * Obtains the tree with every element smaller than the key.
+         *
+         * @return the smaller half
+         */
+        public BST<E> getLeft()
+        {
+            return left;
+        }
+
+        /**
+         * Obtains the tree with every element bigger than the key.
+         *
+         * @return the bigger half
+         */
+        public BST<E> getRight()
+        {
+            return right;
+        }
+
+        /**
+         * Obtains the element of the split tree that was equal to the key.
+         *
+         * @return the element, or null if the tree didn't contain the key
+         */
+        public E getKey()
+        {
+            return key;
+        }
+    }
+
+    /**
+     * Compiles the current contents of this BST into a read-only FrozenBST, whose array layout makes
+     * searches much faster on trees that will not change again. Later changes to this BST are not seen
+     * by the frozen copy.
+     *
+     * @return the frozen copy of this BST
+     */
+    public FrozenBST<E> freeze()
+    {
+        @SuppressWarnings("unchecked")
+        E[] sorted = (E[]) new Comparable<?>[size];
+        Iterator<E> elements = new InOrderIterator(root);
+        for (int i = 0; i < sorted.length; i++)
+        {
+            sorted[i] = elements.next();
+        }
+        return new FrozenBST<E>(sorted);
+    }
+
+    /**
+     * Saves this BST to a file in a compact binary format that keeps its exact shape. The file starts
+     * with a header (a magic number, the size and the balancing strategy), followed by a bitmap with two
+     * bits per node in preorder telling whether the node has a left and a right child, followed by the
+     * keys in preorder, each as its length and then the bytes from the codec.
+     *
+     * @param path the file being written
+     * @param codec the codec converting the keys to bytes
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path, KeyCodec<? super E> codec) throws IOException
+    {
+        byte[] shape = new byte[(int) ((2L * size + 7) / 8)];
+        int bit = 0;
+        PreOrderIterator nodes = new PreOrderIterator(root);
+        while (nodes.hasNext())
+        {
+            Node node = nodes.advance();
+            if (node.left != null)
+            {
+                shape[bit >>> 3] |= (byte) (1 << (bit & 7));
+            }
+            bit++;
+            if (node.right != null)
+            {
+                shape[bit >>> 3] |= (byte) (1 << (bit & 7));
+            }
+            bit++;
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path))))
+        {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(size);
+            out.writeByte(balancing.ordinal());
+            out.write(shape);
+            nodes = new PreOrderIterator(root);
+            while (nodes.hasNext())
+            {
+                byte[] key = codec.encode(nodes.advance().data);
+                out.writeInt(key.length);
+                out.write(key);
+            }
+        }
+    }
+
+    /**
+     * Loads a BST saved by save, with the same shape and balancing strategy it was saved with.
+     *
+     * @param path the file being read
+     * @param codec the codec converting bytes back to keys
+     * @param <T> the data type stored in the nodes of the BST
+     * @return the loaded BST
+     * @throws IOException if the file cannot be read or is not a saved BST
+     */
+    public static <T extends Comparable<T>> BST<T> load(Path path, KeyCodec<? extends T> codec) throws IOException
+    {
+        ByteBuffer buffer = map(path);
+        BST<T> tree = new BST<T>(Balancing.values()[buffer.get(8)]);
+        tree.loadShape(buffer, codec);
+        return tree;
+    }
+
+    /**
+     * Memory-maps a file saved by save and checks its header.
+     *
+     * @param path the file being read
+     * @return the buffer over the whole file, positioned at its start
+     * @throws IOException if the file cannot be read or is not a saved BST
+     */
+    protected static ByteBuffer map(Path path) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException("saved BST is too big to be mapped");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 9 || buffer.getInt(0) != SNAPSHOT_MAGIC || buffer.get(8) < 0
+                || buffer.get(8) >= Balancing.values().length)
+            {
+                throw new IOException("file is not a saved BST");
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Replaces the contents of this BST with the tree saved in a mapped file, in one pass over the file
+     * with no comparisons. Nodes arrive in preorder, so each one is either the left child of the node
+     * just before it or the right child of the last node still waiting for its right child, which the
+     * shape bits say. Heights and subtree sizes are filled in afterwards by one postorder pass.
+     *
+     * @param buffer the buffer over the whole file
+     * @param codec the codec converting bytes back to keys
+     * @throws IOException if the file is not a saved BST
+     */
+    protected void loadShape(ByteBuffer buffer, KeyCodec<? extends E> codec) throws IOException
+    {
+        try
+        {
+            int count = buffer.getInt(4);
+            int shapeStart = 9;
+            long keysStart = shapeStart + (2L * count + 7) / 8;
+            if (count < 0 || keysStart + 4L * count > buffer.limit())
+            {
+                throw new IOException("file is not a saved BST");
+            }
+            buffer.position((int) keysStart);
+            ArrayDeque<Node> awaitingRight = new ArrayDeque<Node>();
+            Node awaitingLeft = null;
+            Node first = null;
+            int hash = 0;
+            for (int i = 0; i < count; i++)
+            {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining())
+                {
+                    throw new IOException("saved BST has a corrupt key length");
+                }
+                ByteBuffer bytes = buffer.slice();
+                bytes.limit(length);
+                buffer.position(buffer.position() + length);
+                E data = codec.decode(bytes);
+                hash += data.hashCode();
+                Node node = new Node(data);
+                if (i == 0)
+                {
+                    first = node;
+                }
+                else if (awaitingLeft != null)
+                {
+                    awaitingLeft.left = node;
+                }
+                else if (!awaitingRight.isEmpty())
+                {
+                    awaitingRight.pop().right = node;
+                }
+                else
+                {
+                    throw new IOException("saved BST has a broken shape");
+                }
+                int bits = buffer.get(shapeStart + (i >>> 2)) >>> (2 * (i & 3));
+                if ((bits & 2) != 0)
+                {
+                    awaitingRight.push(node);
+                }
+                awaitingLeft = ((bits & 1) != 0) ? node : null;
+            }
+            if (awaitingLeft != null || !awaitingRight.isEmpty())
+            {
+                throw new IOException("saved BST has a broken shape");
+            }
+            root = first;
+            size = count;
+            contentHash = hash;
+            contentHashStale = false;
+            updateAllNodes();
+            modCount++;
+        }
+        catch (RuntimeException e)
+        {
+            throw new IOException("file is not a saved BST", e);
+        }
+    }
+
+    /**
+     * Creates an iterator object for this BST which accesses the trees elements in an inorder traversal.
+     *
+     * @return the inorder iterator
+     */
+    public Iterator<E> iterator()
+    {
+        return new InOrderIterator(root);
+    }
+
+    /**
+     * Creates a spliterator over the elements of this BST in sorted order, which stream and
+     * parallelStream use. It splits by index ranges, which the subtree sizes stored in the nodes make
+     * exact, so every part knows its size and a parallel stream divides the work evenly.
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator<E> spliterator()
+    {
+        return new TreeSpliterator(0, size);
+    }
+
+    /**
+     * Creates an iterator object for this BST which accesses the trees elements in a preorder traversal.
+     *
+     * @return the preorder iterator
+     */
+    public Iterator<E> preorderIterator()
+    {
+        return new PreOrderIterator(root);
+    }
+
+    /**
+     * Creates an iterator object for this BST which accesses the trees elements in a postorder traversal.
+     *
+     * @return the postorder iterator
+     */
+    public Iterator<E> postorderIterator()
+    {
+        return new PostOrderIterator(root);
+    }
+
+    /**
+     * Creates a string representation of this BST on a single line.
+     *
+     * @return the toString
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        try
+        {
+            writeTo(sb);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the single line string representation of this BST to an Appendable, one element at a
+     * time, so only the O(height) stack of the inorder iterator is held in memory.
+     *
+     * @param out the destination of the representation
+     * @throws IOException if the destination cannot be written to
+     */
+    public void writeTo(Appendable out) throws IOException
+    {
+        out.append('[');
+        InOrderIterator iterator = new InOrderIterator(root);
+        while (iterator.hasNext())
+        {
+            out.append(String.valueOf(iterator.next())).append(", ");
+        }
+        out.append(']');
+    }
+
+    /**
+     * Creates a string representation of this BST on more than one line in a shape that
+     * more accurately models the BST.
+     *
+     * @return the advanced toString
+     */
+    public String toStringTreeFormat()
+    {
+        StringBuilder sb = new StringBuilder();
+        try
+        {
+            writeTreeFormatTo(sb, Integer.MAX_VALUE);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the multi-line representation of this BST to an Appendable, line by line. The nodes still
+     * to be written are kept on an explicit stack, so at most O(height) of them are held at once and a
+     * degenerate tree cannot overflow the call stack. Levels below maxDepth are cut off, and a node whose
+     * children were cut off gets a single "..." line instead.
+     *
+     * @param out the destination of the representation
+     * @param maxDepth the deepest level written, where the root is at level 0
+     * @throws IOException if the destination cannot be written to
+     */
+    public void writeTreeFormatTo(Appendable out, int maxDepth) throws IOException
+    {
+        ArrayList<Node> nodes = new ArrayList<Node>();
+        ArrayList<Integer> levels = new ArrayList<Integer>();
+        nodes.add(root);
+        levels.add(0);
+        while (!nodes.isEmpty())
+        {
+            Node node = nodes.remove(nodes.size() - 1);
+            int level = levels.remove(levels.size() - 1);
+            //display the node
+            writeIndent(out, level);
+            if (node == null)
+            {
+                out.append("->\n");
+                continue;
+            }
+            out.append(String.valueOf(node.data)).append('\n');
+            if (level >= maxDepth)
+            {
+                if (node.left != null || node.right != null)
+                {
+                    writeIndent(out, level + 1);
+                    out.append("...\n");
+                }
+                continue;
+            }
+            //display the left subtree, then the right subtree
+            nodes.add(node.right);
+            levels.add(level + 1);
+            nodes.add(node.left);
+            levels.add(level + 1);
+        }
+    }
+
+    /**
+     * Helper method for writeTreeFormatTo that writes the indentation of a line at a certain level.
+     *
+     * @param out the destination of the representation
+     * @param level the level of the tree
+     * @throws IOException if the destination cannot be written to
+     */
+    private void writeIndent(Appendable out, int level) throws IOException
+    {
+        if (level > 0)
+        {
+            for (int i = 0; i < level - 1; i++)
+            {
+                out.append("   ");
+            }
+            out.append("|--");
+        }
+    }
+
+    /**
+     * The shared base of the traversal iterators of this BST. Instead of copying the tree into a list,
+     * it keeps a stack of the nodes that still have to be visited, so it only ever holds O(height) nodes
+     * and does work one element at a time. It is fail-fast: changing the tree other than through the
+     * iterator's own remove method makes the next call throw a ConcurrentModificationException.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    protected abstract class TreeIterator implements Iterator<E> {
+        protected ArrayDeque<Node> stack = new ArrayDeque<Node>();
+        protected Node lastReturned;
+        protected int expectedModCount = modCount;
+
+        /**
+         * Obtains the next node of the traversal and moves the stack past it.
+         *
+         * @return the next node in the traversal
+         */
+        protected abstract Node advance();
+
+        /**
+         * Checks if the iterator has a next element.
+         *
+         * @return true if a next element exists; otherwise,
+         *         false
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return !stack.isEmpty();
+        }
+
+        /**
+         * Iterates to the next element in this iterator.
+         *
+         * @return the current element stored in the iterator's traversal
+         */
+        @Override
+        public E next()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException("BST was modified during iteration");
+            }
+            if (!hasNext())
+            {
+                throw new NoSuchElementException("end of iterator reached");
+            }
+            lastReturned = advance();
+            return lastReturned.data;
+        }
+    }
+
+    /**
+     * A lazy inorder iterator for this BST class, which keeps the path to the next node on a stack.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    public class InOrderIterator extends TreeIterator {
+
+        /**
+         * Constructor for the inorder iterator. Pushes the path down to the smallest element.
+         *
+         * @param root the root of this BST from which the iterator will start
+         */
+        public InOrderIterator(Node root)
+        {
+            pushLeft(root);
+        }
+
+        /**
+         * Pushes a node and all of its left descendants onto the stack.
+         *
+         * @param node the node from which to start pushing
+         */
+        private void pushLeft(Node node)
+        {
+            while (node != null)
+            {
+                stack.push(node);
+                node = node.left;
+            }
+        }
+
+        /**
+         * Obtains the next node of the inorder traversal.
+         *
+         * @return the next node
+         */
+        @Override
+        protected Node advance()
+        {
+            Node node = stack.pop();
+            pushLeft(node.right);
+            return node;
+        }
+
+        /**
+         * Removes the last element returned by this iterator from the BST. Since removing can move data
+         * between nodes (and rotate an AVL tree), the stack is rebuilt afterwards by searching for the
+         * smallest element bigger than the removed one, which costs O(height).
+         */
+        @Override
+        public void remove()
+        {
+            if (lastReturned == null)
+            {
+                throw new IllegalStateException("next must be called before remove");
+            }
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException("BST was modified during iteration");
+            }
+            E removed = lastReturned.data;
+            BST.this.remove(removed);
+            lastReturned = null;
+            expectedModCount = modCount;
+            stack.clear();
+            Node cur = root;
+            while (cur != null)
+            {
+                if (removed.compareTo(cur.data) < 0)
+                {
+                    stack.push(cur);
+                    cur = cur.left;
+                }
+                else
+                {
+                    cur = cur.right;
+                }
+            }
+        }
+    }
+
+    /**
+     * A lazy preorder iterator for this BST class, which keeps the subtrees still to be visited on a stack.
+     * Removing through this iterator is not supported, since a removal can change the shape of the tree and
+     * with it the order of the elements not yet visited.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    public class PreOrderIterator extends TreeIterator {
+
+        /**
+         * Constructor for the preorder iterator. Pushes the root of the tree.
+         *
+         * @param root the root of this BST from which the iterator will start
+         */
+        public PreOrderIterator(Node root)
+        {
+            if (root != null)
+            {
+                stack.push(root);
+            }
+        }
+
+        /**
+         * Obtains the next node of the preorder traversal.
+         *
+         * @return the next node
+         */
+        @Override
+        protected Node advance()
+        {
+            Node node = stack.pop();
+            if (node.right != null)
+            {
+                stack.push(node.right);
+            }
+            if (node.left != null)
+            {
+                stack.push(node.left);
+            }
+            return node;
+        }
+    }
+
+    /**
+     * A lazy postorder iterator for this BST class, which keeps the path to the next node on a stack.
+     * Removing through this iterator is not supported, since a removal can change the shape of the tree and
+     * with it the order of the elements not yet visited.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    public class PostOrderIterator extends TreeIterator {
+
+        /**
+         * Constructor for the postorder iterator. Pushes the path down to the first leaf.
+         *
+         * @param root the root of this BST from which the iterator will start
+         */
+        public PostOrderIterator(Node root)
+        {
+            pushToLeaf(root);
+        }
+
+        /**
+         * Pushes a node and the path from it to its leftmost leaf onto the stack, going right only
+         * where there is no left child.
+         *
+         * @param node the node from which to start pushing
+         */
+        private void pushToLeaf(Node node)
+        {
+            while (node != null)
+            {
+                stack.push(node);
+                node = (node.left != null) ? node.left : node.right;
+            }
+        }
+
+        /**
+         * Obtains the next node of the postorder traversal.
+         *
+         * @return the next node
+         */
+        @Override
+        protected Node advance()
+        {
+            Node node = stack.pop();
+            if (!stack.isEmpty())
+            {
+                Node parent = stack.peek();
+                if (parent.left == node)
+                {
+                    pushToLeaf(parent.right);
+                }
+            }
+            return node;
+        }
+    }
+
+    /**
+     * A lazy iterator over the elements of this BST between a start and an end bound, in ascending or
+     * descending order. It seeks to the start bound in O(height) and then stops as soon as it passes the
+     * end bound, so only the elements inside the range are ever visited.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class RangeIterator extends TreeIterator {
+        private final boolean descending;
+        private final E end;
+        private final boolean endInclusive;
+
+        /**
+         * Constructor for the range iterator. Pushes the path down to the first element of the range.
+         *
+         * @param descending whether the elements are visited from the greatest to the least
+         * @param start the bound the iteration starts from, or null to start at the first element
+         * @param startInclusive whether the start bound itself can be visited
+         * @param end the bound the iteration stops at, or null to run to the last element
+         * @param endInclusive whether the end bound itself can be visited
+         */
+        public RangeIterator(boolean descending, E start, boolean startInclusive, E end, boolean endInclusive)
+        {
+            this.descending = descending;
+            this.end = end;
+            this.endInclusive = endInclusive;
+            seek(start, startInclusive);
+        }
+
+        /**
+         * Rebuilds the stack so that its top is the first element at or past a bound in the direction of
+         * this iterator.
+         *
+         * @param start the bound to seek to, or null to seek to the first element
+         * @param inclusive whether an element equal to the bound can be the top of the stack
+         */
+        private void seek(E start, boolean inclusive)
+        {
+            stack.clear();
+            Node cur = root;
+            while (cur != null)
+            {
+                int compare = 1;
+                if (start != null)
+                {
+                    compare = descending ? start.compareTo(cur.data) : cur.data.compareTo(start);
+                }
+                if (compare > 0 || (compare == 0 && inclusive))
+                {
+                    stack.push(cur);
+                    cur = descending ? cur.right : cur.left;
+                }
+                else
+                {
+                    cur = descending ? cur.left : cur.right;
+                }
+            }
+        }
+
+        /**
+         * Checks if the iterator has a next element inside its range.
+         *
+         * @return true if a next element exists; otherwise,
+         *         false
+         */
+        @Override
+        public boolean hasNext()
+        {
+            if (stack.isEmpty())
+            {
+                return false;
+            }
+            if (end == null)
+            {
+                return true;
+            }
+            int compare = stack.peek().data.compareTo(end);
+            if (descending)
+            {
+                compare = -compare;
+            }
+            return compare < 0 || (compare == 0 && endInclusive);
+        }
+
+        /**
+         * Obtains the next node of the traversal.
+         *
+         * @return the next node
+         */
+        @Override
+        protected Node advance()
+        {
+            Node node = stack.pop();
+            Node cur = descending ? node.left : node.right;
+            while (cur != null)
+            {
+                stack.push(cur);
+                cur = descending ? cur.right : cur.left;
+            }
+            return node;
+        }
+
+        /**
+         * Removes the last element returned by this iterator from the BST, then seeks past it again
+         * in O(height).
+         */
+        @Override
+        public void remove()
+        {
+            if (lastReturned == null)
+            {
+                throw new IllegalStateException("next must be called before remove");
+            }
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException("BST was modified during iteration");
+            }
+            E removed = lastReturned.data;
+            BST.this.remove(removed);
+            lastReturned = null;
+            expectedModCount = modCount;
+            seek(removed, false);
+        }
+    }
+
+    /**
+     * A spliterator over the elements of this BST with indexes in a range. Splitting only halves the
+     * range, and the path down to the first element is found (like in select) the first time the
+     * spliterator advances, after which every element is reached in amortized O(1) as in the inorder
+     * iterator. It is fail-fast, like the iterators.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class TreeSpliterator implements Spliterator<E> {
+        private ArrayDeque<Node> stack;
+        private int index;
+        private final int fence;
+        private final int expectedModCount = modCount;
+
+        /**
+         * Constructor for the spliterator.
+         *
+         * @param index the index of the first element covered
+         * @param fence one past the index of the last element covered
+         */
+        public TreeSpliterator(int index, int fence)
+        {
+            this.index = index;
+            this.fence = fence;
+        }
+
+        /**
+         * Pushes the path down to the element at the current index onto the stack, keeping only the nodes
+         * whose element comes after it.
+         */
+        private void seek()
+        {
+            stack = new ArrayDeque<Node>();
+            Node cur = root;
+            int i = index;
+            while (cur != null)
+            {
+                if (i <= cur.leftTreeSize)
+                {
+                    stack.push(cur);
+                    if (i == cur.leftTreeSize)
+                    {
+                        break;
+                    }
+                    cur = cur.left;
+                }
+                else
+                {
+                    i -= cur.leftTreeSize + 1;
+                    cur = cur.right;
+                }
+            }
+        }
+
+        /**
+         * Performs an action on the next element, if there is one.
+         *
+         * @param action the action performed
+         * @return true if there was a next element; otherwise,
+         *         false
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action)
+        {
+            if (action == null)
+            {
+                throw new NullPointerException("action cannot be null");
+            }
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException("BST was modified during iteration");
+            }
+            if (index >= fence)
+            {
+                return false;
+            }
+            if (stack == null)
+            {
+                seek();
+            }
+            Node node = stack.pop();
+            for (Node cur = node.right; cur != null; cur = cur.left)
+            {
+                stack.push(cur);
+            }
+            index++;
+            action.accept(node.data);
+            return true;
+        }
+
+        /**
+         * Splits off the first half of the remaining elements into a new spliterator.
+         *
+         * @return the spliterator over the first half, or null if too few elements remain
+         */
+        @Override
+        public Spliterator<E> trySplit()
+        {
+            int mid = (index + fence) >>> 1;
+            if (mid <= index)
+            {
+                return null;
+            }
+            Spliterator<E> prefix = new TreeSpliterator(index, mid);
+            index = mid;
+            stack = null;
+            return prefix;
+        }
 
         /**
-         * Constructor for the inorder iterator. Constructs the list from the node.
+         * Obtains the exact number of elements left.
          *
-         * @param root the root of this BST from which the iterator's list will be created
+         * @return the number of elements left
          */
-        public InOrderIterator(Node root)
+        @Override
+        public long estimateSize()
         {
-            makeList(root);
+            return fence - index;
         }
 
         /**
-         * Creates the iterators inorder list.
+         * Obtains the characteristics of this spliterator.
          *
-         * @param node the node from which the list will be created
+         * @return the characteristics
          */
-        public void makeList(Node node)
+        @Override
+        public int characteristics()
         {
-            if (node == null)
+            return SIZED | SUBSIZED | SORTED | DISTINCT | ORDERED | NONNULL;
+        }
+
+        /**
+         * Obtains the comparator of the elements, which is null since they are in natural order.
+         *
+         * @return null
+         */
+        @Override
+        public Comparator<? super E> getComparator()
+        {
+            return null;
+        }
+    }
+
+    /**
+     * A live view of the elements of this BST between two optional bounds, possibly in descending order.
+     * The view stores no elements of its own: every method works directly on the tree, so changes made
+     * through the view show up in the tree and the other way around. Bounds are always kept in ascending
+     * terms, and the descending flag only swaps which end of the range is considered first.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class SubSet extends AbstractSet<E> implements NavigableSet<E> {
+        private final boolean fromStart;
+        private final E lo;
+        private final boolean loInclusive;
+        private final boolean toEnd;
+        private final E hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        /**
+         * Constructor for the range view.
+         *
+         * @param fromStart whether the view has no lower bound
+         * @param lo the lower bound of the view
+         * @param loInclusive whether the lower bound itself is part of the view
+         * @param toEnd whether the view has no upper bound
+         * @param hi the upper bound of the view
+         * @param hiInclusive whether the upper bound itself is part of the view
+         * @param descending whether the view is ordered from the greatest to the least element
+         */
+        public SubSet(boolean fromStart, E lo, boolean loInclusive, boolean toEnd, E hi, boolean hiInclusive,
+                      boolean descending)
+        {
+            this.fromStart = fromStart;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.toEnd = toEnd;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        /**
+         * Checks if an element is below the lower bound of this view.
+         *
+         * @param e the element to be checked
+         * @return true if e is too low for this view; otherwise,
+         *         false
+         */
+        private boolean tooLow(E e)
+        {
+            if (fromStart)
             {
-                return;
+                return false;
             }
-            makeList(node.left);
-            list.add((E) node.data);
-            makeList(node.right);
+            int compare = e.compareTo(lo);
+            return compare < 0 || (compare == 0 && !loInclusive);
         }
 
         /**
-         * Checks if the iterator has a next element.
+         * Checks if an element is above the upper bound of this view.
          *
-         * @return true if a next element exists; otherwise,
+         * @param e the element to be checked
+         * @return true if e is too high for this view; otherwise,
+         *         false
+         */
+        private boolean tooHigh(E e)
+        {
+            if (toEnd)
+            {
+                return false;
+            }
+            int compare = e.compareTo(hi);
+            return compare > 0 || (compare == 0 && !hiInclusive);
+        }
+
+        /**
+         * Checks if an element is inside the bounds of this view.
+         *
+         * @param e the element to be checked
+         * @return true if e is in range; otherwise,
+         *         false
+         */
+        private boolean inRange(E e)
+        {
+            return !tooLow(e) && !tooHigh(e);
+        }
+
+        /**
+         * Obtains the smallest element of the tree inside the bounds of this view.
+         *
+         * @return the lowest element in range, or null if there is none
+         */
+        private E absLowest()
+        {
+            E e = findCeiling(fromStart ? null : lo, loInclusive);
+            return (e == null || tooHigh(e)) ? null : e;
+        }
+
+        /**
+         * Obtains the greatest element of the tree inside the bounds of this view.
+         *
+         * @return the highest element in range, or null if there is none
+         */
+        private E absHighest()
+        {
+            E e = findFloor(toEnd ? null : hi, hiInclusive);
+            return (e == null || tooLow(e)) ? null : e;
+        }
+
+        /**
+         * Obtains the smallest element in range greater than (or equal to) a given element.
+         *
+         * @param e the element being compared to
+         * @param inclusive whether an element equal to e can be returned
+         * @return the element found, or null if there is none
+         */
+        private E absCeiling(E e, boolean inclusive)
+        {
+            if (tooLow(e))
+            {
+                return absLowest();
+            }
+            E ceiling = findCeiling(e, inclusive);
+            return (ceiling == null || tooHigh(ceiling)) ? null : ceiling;
+        }
+
+        /**
+         * Obtains the greatest element in range less than (or equal to) a given element.
+         *
+         * @param e the element being compared to
+         * @param inclusive whether an element equal to e can be returned
+         * @return the element found, or null if there is none
+         */
+        private E absFloor(E e, boolean inclusive)
+        {
+            if (tooHigh(e))
+            {
+                return absHighest();
+            }
+            E floor = findFloor(e, inclusive);
+            return (floor == null || tooLow(floor)) ? null : floor;
+        }
+
+        /**
+         * Creates a view with the tighter of this view's bounds and the given bounds, checking that the
+         * given bounds do not reach outside of this view.
+         *
+         * @param fromStart whether the new view has no lower bound of its own
+         * @param newLo the lower bound of the new view
+         * @param newLoInclusive whether the new lower bound itself is part of the view
+         * @param toEnd whether the new view has no upper bound of its own
+         * @param newHi the upper bound of the new view
+         * @param newHiInclusive whether the new upper bound itself is part of the view
+         * @return the new view, with the same order as this one
+         */
+        private NavigableSet<E> restrict(boolean fromStart, E newLo, boolean newLoInclusive,
+                                         boolean toEnd, E newHi, boolean newHiInclusive)
+        {
+            boolean resultFromStart = this.fromStart;
+            E resultLo = lo;
+            boolean resultLoInclusive = loInclusive;
+            if (!fromStart)
+            {
+                checkBound(newLo);
+                int compare = this.fromStart ? 1 : newLo.compareTo(lo);
+                if (compare >= 0)
+                {
+                    resultFromStart = false;
+                    resultLo = newLo;
+                    resultLoInclusive = (compare == 0) ? loInclusive && newLoInclusive : newLoInclusive;
+                }
+            }
+            boolean resultToEnd = this.toEnd;
+            E resultHi = hi;
+            boolean resultHiInclusive = hiInclusive;
+            if (!toEnd)
+            {
+                checkBound(newHi);
+                int compare = this.toEnd ? -1 : newHi.compareTo(hi);
+                if (compare <= 0)
+                {
+                    resultToEnd = false;
+                    resultHi = newHi;
+                    resultHiInclusive = (compare == 0) ? hiInclusive && newHiInclusive : newHiInclusive;
+                }
+            }
+            if (!resultFromStart && !resultToEnd && resultLo.compareTo(resultHi) > 0)
+            {
+                throw new IllegalArgumentException("lower bound of subSet is bigger than its upper bound");
+            }
+            return new SubSet(resultFromStart, resultLo, resultLoInclusive, resultToEnd, resultHi,
+                    resultHiInclusive, descending);
+        }
+
+        /**
+         * Checks that a bound given to one of this view's own view methods is not outside of this view.
+         *
+         * @param e the bound to be checked
+         */
+        private void checkBound(E e)
+        {
+            if (e == null)
+            {
+                throw new NullPointerException("bound cannot be null");
+            }
+            if ((!fromStart && e.compareTo(lo) < 0) || (!toEnd && e.compareTo(hi) > 0))
+            {
+                throw new IllegalArgumentException("bound is out of the range of this view");
+            }
+        }
+
+        /**
+         * Obtains the number of elements in this view, as the difference of two ranks in O(height).
+         *
+         * @return the size
+         */
+        @Override
+        public int size()
+        {
+            return countBetween(fromStart ? null : lo, loInclusive, toEnd ? null : hi, hiInclusive);
+        }
+
+        /**
+         * Checks if this view has no elements, by seeking to its first element.
+         *
+         * @return true if empty; otherwise,
          *         false
          */
         @Override
-        public boolean hasNext()
+        public boolean isEmpty()
         {
-            return (current < list.size());
+            return absLowest() == null;
         }
 
         /**
-         * Iterates to the next element in this iterator.
+         * Checks if this view contains a certain element.
          *
-         * @return the current element stored in the iterator's inorder traversal
+         * @param o the element being searched for
+         * @return true if o is in range and in the BST; otherwise,
+         *         false
          */
         @Override
-        public E next()
+        public boolean contains(Object o)
         {
-            if (current > list.size())
+            try
+            {
+                @SuppressWarnings("unchecked")
+                E element = (E) o;
+                return inRange(element) && BST.this.contains(o);
+            }
+            catch (ClassCastException e)
             {
-                throw new IndexOutOfBoundsException("end of iterator reached");
+                return false;
             }
-            E temp = list.get(current);
-            current++;
-            return temp;
         }
-    }
 
-    /**
-     * A preorder iterator for this BST class, represented by a list.
-     *
-     * @param <E> the type of the iterator (same as the BST)
-     *
-     * @author Shrey Khater
-     * @version 12/5/22
-     */
-    public class PreOrderIterator<E> implements Iterator<E>{
-        ArrayList<E> list = new ArrayList<E>();
-        int current = 0;
+        /**
+         * Adds an element to the BST through this view.
+         *
+         * @param e the element to be added, which must be in range
+         * @return true if the element was able to be added; otherwise,
+         *         false
+         */
+        @Override
+        public boolean add(E e)
+        {
+            if (!inRange(e))
+            {
+                throw new IllegalArgumentException("added element is out of the range of this view");
+            }
+            return BST.this.add(e);
+        }
 
         /**
-         * Constructor for the preorder iterator. Constructs the list from the node.
+         * Removes an element from the BST through this view.
          *
-         * @param root the root of this BST from which the iterator's list will be created
+         * @param o the element to be removed
+         * @return true if o was in range and able to be removed; otherwise,
+         *         false
          */
-        public PreOrderIterator(Node root)
+        @Override
+        public boolean remove(Object o)
         {
-            makeList(root);
+            try
+            {
+                @SuppressWarnings("unchecked")
+                E element = (E) o;
+                return inRange(element) && BST.this.remove(o);
+            }
+            catch (ClassCastException e)
+            {
+                return false;
+            }
         }
 
+        /**
+         * Removes every element of this view from the BST, leaving the elements outside of the range.
+         */
+        @Override
+        public void clear()
+        {
+            Iterator<E> iterator = iterator();
+            while (iterator.hasNext())
+            {
+                iterator.next();
+                iterator.remove();
+            }
+        }
 
         /**
-         * Creates the iterators preorder list.
+         * Creates a lazy iterator over the elements of this view, in the order of the view.
          *
-         * @param node the node from which the list will be created
+         * @return the iterator
          */
-        public void makeList(Node node)
+        @Override
+        public Iterator<E> iterator()
         {
-            if (node == null)
+            if (descending)
             {
-                return;
+                return rangeIterator(true, toEnd ? null : hi, hiInclusive, fromStart ? null : lo, loInclusive);
             }
-            list.add((E) node.data);
-            makeList(node.left);
-            makeList(node.right);
+            return rangeIterator(false, fromStart ? null : lo, loInclusive, toEnd ? null : hi, hiInclusive);
         }
 
         /**
-         * Checks if the iterator has a next element.
+         * Creates a lazy iterator over the elements of this view, in the reverse order of the view.
          *
-         * @return true if a next element exists; otherwise,
-         *         false
+         * @return the descending iterator
          */
         @Override
-        public boolean hasNext()
+        public Iterator<E> descendingIterator()
         {
-            return (current < list.size());
+            return descendingSet().iterator();
         }
 
         /**
-         * Iterates to the next element in this iterator.
+         * Obtains the comparator ordering this view. An ascending view uses the natural ordering like
+         * the BST itself, and a descending view uses Collections.reverseOrder().
          *
-         * @return the current element stored in the iterator's preorder traversal
+         * @return Collections.reverseOrder() if this view is descending; otherwise,
+         *         null
          */
         @Override
-        public E next()
+        public Comparator<? super E> comparator()
+        {
+            return descending ? Collections.reverseOrder() : null;
+        }
+
+        /**
+         * Obtains the first element of this view.
+         *
+         * @return the first element
+         */
+        @Override
+        public E first()
         {
-            if (current > list.size())
+            E e = descending ? absHighest() : absLowest();
+            if (e == null)
             {
-                throw new IndexOutOfBoundsException("end of iterator reached");
+                throw new NoSuchElementException("first method cannot be called on an empty set");
             }
-            E temp = list.get(current);
-            current++;
-            return temp;
+            return e;
         }
-    }
 
-    /**
-     * A postorder iterator for this BST class, represented by a list.
-     *
-     * @param <E> the type of the iterator (same as the BST)
-     *
-     * @author Shrey Khater
-     * @version 12/5/22
-     */
-    public class PostOrderIterator<E> implements Iterator<E>{
-        ArrayList<E> list = new ArrayList<E>();
-        int current = 0;
+        /**
+         * Obtains the last element of this view.
+         *
+         * @return the last element
+         */
+        @Override
+        public E last()
+        {
+            E e = descending ? absLowest() : absHighest();
+            if (e == null)
+            {
+                throw new NoSuchElementException("last method cannot be called on an empty set");
+            }
+            return e;
+        }
 
         /**
-         * Constructor for the postorder iterator. Constructs the list from the node.
+         * Obtains the first element of this view at or after a given element.
          *
-         * @param root the root of this BST from which the iterator's list will be created
+         * @param e the element being compared to
+         * @return the element found, or null
          */
-        public PostOrderIterator(Node root)
+        @Override
+        public E ceiling(E e)
+        {
+            return descending ? absFloor(e, true) : absCeiling(e, true);
+        }
+
+        /**
+         * Obtains the first element of this view strictly after a given element.
+         *
+         * @param e the element being compared to
+         * @return the element found, or null
+         */
+        @Override
+        public E higher(E e)
         {
-            makeList(root);
+            return descending ? absFloor(e, false) : absCeiling(e, false);
         }
 
         /**
-         * Creates the iterators postorder list.
+         * Obtains the last element of this view at or before a given element.
          *
-         * @param node the node from which the list will be created
+         * @param e the element being compared to
+         * @return the element found, or null
          */
-        public void makeList(Node node)
+        @Override
+        public E floor(E e)
         {
-            if (node == null)
+            return descending ? absCeiling(e, true) : absFloor(e, true);
+        }
+
+        /**
+         * Obtains the last element of this view strictly before a given element.
+         *
+         * @param e the element being compared to
+         * @return the element found, or null
+         */
+        @Override
+        public E lower(E e)
+        {
+            return descending ? absCeiling(e, false) : absFloor(e, false);
+        }
+
+        /**
+         * Removes and returns the first element of this view.
+         *
+         * @return the first element, or null if this view is empty
+         */
+        @Override
+        public E pollFirst()
+        {
+            return pollBetween(fromStart ? null : lo, loInclusive, toEnd ? null : hi, hiInclusive, descending);
+        }
+
+        /**
+         * Removes and returns the last element of this view.
+         *
+         * @return the last element, or null if this view is empty
+         */
+        @Override
+        public E pollLast()
+        {
+            return pollBetween(fromStart ? null : lo, loInclusive, toEnd ? null : hi, hiInclusive, !descending);
+        }
+
+        /**
+         * Obtains a view of the elements of this view between two bounds.
+         *
+         * @param fromElement the first bound, in the order of this view
+         * @param fromInclusive whether the first bound itself is part of the view
+         * @param toElement the second bound, in the order of this view
+         * @param toInclusive whether the second bound itself is part of the view
+         * @return the narrower view
+         */
+        @Override
+        public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive)
+        {
+            if (descending)
             {
-                return;
+                return restrict(false, toElement, toInclusive, false, fromElement, fromInclusive);
             }
-            makeList(node.left);
-            makeList(node.right);
-            list.add((E) node.data);
+            return restrict(false, fromElement, fromInclusive, false, toElement, toInclusive);
         }
 
         /**
-         * Checks if the iterator has a next element.
+         * Obtains a view of the elements of this view before a bound.
          *
-         * @return true if a next element exists; otherwise,
-         *         false
+         * @param toElement the bound, in the order of this view
+         * @param inclusive whether the bound itself is part of the view
+         * @return the narrower view
          */
         @Override
-        public boolean hasNext()
+        public NavigableSet<E> headSet(E toElement, boolean inclusive)
         {
-            return (current < list.size());
+            if (descending)
+            {
+                return restrict(false, toElement, inclusive, true, null, false);
+            }
+            return restrict(true, null, false, false, toElement, inclusive);
         }
 
         /**
-         * Iterates to the next element in this iterator.
+         * Obtains a view of the elements of this view after a bound.
          *
-         * @return the current element stored in the iterator's postorder traversal
+         * @param fromElement the bound, in the order of this view
+         * @param inclusive whether the bound itself is part of the view
+         * @return the narrower view
          */
         @Override
-        public E next()
+        public NavigableSet<E> tailSet(E fromElement, boolean inclusive)
         {
-            if (current > list.size())
+            if (descending)
             {
-                throw new IndexOutOfBoundsException("end of iterator reached");
+                return restrict(true, null, false, false, fromElement, inclusive);
             }
-            E temp = list.get(current);
-            current++;
-            return temp;
+            return restrict(false, fromElement, inclusive, true, null, false);
+        }
+
+        /**
+         * Obtains a view of the elements of this view from a bound (inclusive) up to another (exclusive).
+         *
+         * @param fromElement the inclusive first bound
+         * @param toElement the exclusive second bound
+         * @return the narrower view
+         */
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement)
+        {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        /**
+         * Obtains a view of the elements of this view before an exclusive bound.
+         *
+         * @param toElement the exclusive bound
+         * @return the narrower view
+         */
+        @Override
+        public SortedSet<E> headSet(E toElement)
+        {
+            return headSet(toElement, false);
+        }
+
+        /**
+         * Obtains a view of the elements of this view from an inclusive bound on.
+         *
+         * @param fromElement the inclusive bound
+         * @return the narrower view
+         */
+        @Override
+        public SortedSet<E> tailSet(E fromElement)
+        {
+            return tailSet(fromElement, true);
+        }
+
+        /**
+         * Obtains a view of the same range in the opposite order.
+         *
+         * @return the reversed view
+         */
+        @Override
+        public NavigableSet<E> descendingSet()
+        {
+            return new SubSet(fromStart, lo, loInclusive, toEnd, hi, hiInclusive, !descending);
         }
     }
-}
\ No newline at end of file
+}
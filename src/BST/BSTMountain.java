@@ -1,5 +1,21 @@
 package BST;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The BSTMountain class extends the BST class's functionality, as well as implementing an
@@ -10,14 +26,115 @@ import java.util.ArrayList;
  */
 public class BSTMountain extends BST<RestStop>
 {
+    private static final int MIN_TASK_SIZE = 1024;
+
     ArrayList<String> solutions;
     int treeHeight;
 
     /**
-     * Default constructor for objets of class BSTMountain.
+     * Default constructor for objets of class BSTMountain. The mountain is never rebalanced, because
+     * the insertion-order shape of the tree is what defines the paths down the mountain.
      */
     public BSTMountain()
     {
+        super(Balancing.NONE);
+    }
+
+    /**
+     * Builds the mountain that adding the given rest stops one by one, in list order, would produce,
+     * without the quadratic cost of adding them to a degenerate tree. That shape is the Cartesian tree
+     * of the stops keyed by label with the position in the list as priority (earlier stops sit higher
+     * up), so it is built with one sort and a single stack pass over the sorted stops. As with add, a
+     * stop whose label appeared earlier in the list is ignored.
+     *
+     * @param stops the rest stops in the order they would have been added
+     * @return the mountain with the same shape as adding the stops in order
+     */
+    public static BSTMountain fromInsertionOrder(List<RestStop> stops)
+    {
+        BSTMountain mountain = new BSTMountain();
+        Integer[] order = new Integer[stops.size()];
+        for (int i = 0; i < order.length; i++)
+        {
+            if (stops.get(i) == null)
+            {
+                throw new NullPointerException("null value found");
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int compare = stops.get(a).compareTo(stops.get(b));
+            return (compare != 0) ? compare : Integer.compare(a, b);
+        });
+
+        //Walks the stops in label order, keeping the right spine of the tree built so far on a stack
+        ArrayDeque<Node> spine = new ArrayDeque<Node>();
+        ArrayDeque<Integer> spineOrder = new ArrayDeque<Integer>();
+        RestStop previous = null;
+        for (int index : order)
+        {
+            RestStop stop = stops.get(index);
+            if (previous != null && stop.compareTo(previous) == 0)
+            {
+                continue;
+            }
+            previous = stop;
+            Node node = mountain.new Node(stop);
+            Node last = null;
+            while (!spine.isEmpty() && spineOrder.peek() > index)
+            {
+                last = spine.pop();
+                spineOrder.pop();
+            }
+            node.left = last;
+            if (!spine.isEmpty())
+            {
+                spine.peek().right = node;
+            }
+            spine.push(node);
+            spineOrder.push(index);
+            mountain.size++;
+            mountain.contentHash += stop.hashCode();
+        }
+        mountain.root = spine.peekLast();
+        mountain.updateAllNodes();
+        mountain.modCount++;
+        return mountain;
+    }
+
+    /**
+     * Loads a mountain saved with save and RestStop.CODEC. The saved shape is rebuilt exactly, so the
+     * loaded mountain has the same paths as the one that was saved.
+     *
+     * @param path the file being read
+     * @return the loaded mountain
+     * @throws IOException if the file cannot be read or is not a saved BST
+     */
+    public static BSTMountain load(Path path) throws IOException
+    {
+        BSTMountain mountain = new BSTMountain();
+        mountain.loadShape(map(path), RestStop.CODEC);
+        return mountain;
+    }
+
+    /**
+     * Adds every rest stop of a collection to this mountain one by one, in the collection's order.
+     * Unlike BST, sorted input is never merged and rebuilt, since that would change the shape of the
+     * mountain.
+     *
+     * @param c the rest stops to be added
+     * @return true if this mountain changed; otherwise,
+     *         false
+     */
+    @Override
+    public boolean addAll(Collection<? extends RestStop> c)
+    {
+        boolean changed = false;
+        for (RestStop stop : c)
+        {
+            changed |= add(stop);
+        }
+        return changed;
     }
 
     /**
@@ -30,14 +147,92 @@ public class BSTMountain extends BST<RestStop>
     public ArrayList<String> getSolutions(Hiker hiker)
     {
         solutions = new ArrayList<String>();
-        treeHeight = this.height() - 1;
-        solutionsRec(hiker, root, 0, "");
+        treeHeight = (root == null) ? -1 : root.height - 1;
+        Solver solver = new Solver(root, 0, hiker.getNumFood(), hiker.getNumAxes(), hiker.getNumRafts(),
+                                   new RestStop[0]);
+        while (solver.findNext())
+        {
+            solutions.add(solver.getSolution());
+        }
         return solutions;
     }
 
     /**
-     * Recursive helper method for getSolutions which actually iterates through the mountain to find
-     * safe solutions.
+     * Passes the safe solutions a hiker can take down this mountain to a sink one by one, in the same
+     * order as getSolutions, as soon as each is found. Only the current path is held in memory, so the
+     * memory used depends on the height of the mountain, not on the number of solutions.
+     *
+     * @param hiker the hiker traversing this mountain
+     * @param sink the sink receiving the solutions
+     */
+    public void forEachSolution(Hiker hiker, SolutionSink sink)
+    {
+        Solver solver = new Solver(root, 0, hiker.getNumFood(), hiker.getNumAxes(), hiker.getNumRafts(),
+                                   new RestStop[0]);
+        while (solver.findNext())
+        {
+            sink.accept(solver.getPath());
+        }
+    }
+
+    /**
+     * Creates an iterator over the safe solutions a hiker can take down this mountain, in the same order
+     * as getSolutions. The search only runs as far as the solutions asked for, and each solution is a
+     * new list of the rest stops from the top of the mountain down.
+     *
+     * @param hiker the hiker traversing this mountain
+     * @return the iterator over the solutions
+     */
+    public Iterator<List<RestStop>> solutionIterator(Hiker hiker)
+    {
+        Solver solver = new Solver(root, 0, hiker.getNumFood(), hiker.getNumAxes(), hiker.getNumRafts(),
+                                   new RestStop[0]);
+        return new Iterator<List<RestStop>>()
+        {
+            private boolean fetched;
+            private boolean found;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (!fetched)
+                {
+                    found = solver.findNext();
+                    fetched = true;
+                }
+                return found;
+            }
+
+            @Override
+            public List<RestStop> next()
+            {
+                if (!hasNext())
+                {
+                    throw new NoSuchElementException("end of iterator reached");
+                }
+                fetched = false;
+                return new ArrayList<RestStop>(solver.getPath());
+            }
+        };
+    }
+
+    /**
+     * Creates a sequential stream over the safe solutions a hiker can take down this mountain, in the
+     * same order as getSolutions, which searches lazily like solutionIterator.
+     *
+     * @param hiker the hiker traversing this mountain
+     * @return the stream of solutions
+     */
+    public Stream<List<RestStop>> solutionStream(Hiker hiker)
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(solutionIterator(hiker),
+                                    Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Recursive helper method which actually iterates through the mountain to find safe solutions.
+     * getSolutions uses the iterative Solver instead, which finds the same solutions in the same order
+     * but cannot overflow the call stack on a deep mountain.
      *
      * @param hiker the hiker traversing this mountain
      * @param restStop the current RestStop node the hiker is at in this iteration of the recursion
@@ -101,4 +296,421 @@ public class BSTMountain extends BST<RestStop>
             }
         }
     }
+
+    /**
+     * Finds the safe solutions in parallel with a ForkJoinPool of the given number of threads. The
+     * search is split where a rest stop has two subtrees big enough to be worth a task of their own,
+     * judging by the subtree sizes stored in the nodes. Every task has its own copy of the hiker's
+     * supplies, and the results of the tasks are merged so that the solutions come out in the same
+     * order as from getSolutions.
+     *
+     * @param hiker the hiker traversing this mountain
+     * @param parallelism the number of threads searching the mountain
+     * @return the list of safe solutions, in string label format
+     */
+    public ArrayList<String> getSolutionsParallel(Hiker hiker, int parallelism)
+    {
+        if (parallelism < 1)
+        {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        int splits = 4 + 32 - Integer.numberOfLeadingZeros(parallelism - 1);
+        int threshold = Math.max(MIN_TASK_SIZE, size / (8 * parallelism));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            return pool.invoke(new SolveTask(root, 0, hiker.getNumFood(), hiker.getNumAxes(), hiker.getNumRafts(),
+                                             new RestStop[0], splits, threshold));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Visits a rest stop: the hiker picks up its supplies, then uses them to get past its obstacles.
+     * The supplies and obstacles were compiled by the RestStop into one change per count, so this is
+     * integer arithmetic only. The hiker's supplies afterwards are written into a frame.
+     *
+     * @param stop the rest stop being visited
+     * @param food the hiker's food on arrival
+     * @param axes the hiker's axes on arrival
+     * @param rafts the hiker's rafts on arrival
+     * @param frame the frame receiving the hiker's supplies after the visit
+     * @return true if the hiker got past every obstacle; otherwise,
+     *         false
+     */
+    private boolean visit(RestStop stop, int food, int axes, int rafts, Frame frame)
+    {
+        axes += stop.getAxeDelta();
+        rafts += stop.getRaftDelta();
+        if (axes < 0 || rafts < 0)
+        {
+            return false;
+        }
+        frame.food = food + stop.getFoodDelta();
+        frame.axes = axes;
+        frame.rafts = rafts;
+        return true;
+    }
+
+    /**
+     * Appends the labels of the first rest stops of a path to a buffer, each followed by a space.
+     *
+     * @param buffer the buffer being appended to
+     * @param path the rest stops of the path
+     * @param length the number of rest stops appended
+     */
+    private static void appendLabels(StringBuilder buffer, RestStop[] path, int length)
+    {
+        for (int i = 0; i < length; i++)
+        {
+            buffer.append(path[i].getLabel()).append(' ');
+        }
+    }
+
+    /**
+     * An iterative search for the safe solutions below a rest stop, equivalent to solutionsRec. Instead
+     * of recursing, it keeps one frame per level of the current path in an array allocated up front, so
+     * its memory is bounded by the height of the mountain and any depth works. The search is resumable:
+     * findNext runs only until the next solution is found.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class Solver
+    {
+        private static final int ENTER = 0;
+        private static final int LEFT_DONE = 1;
+        private static final int RIGHT_DONE = 2;
+
+        private final Frame[] frames;
+        private final int startSteps;
+        private final int lastSteps;
+        private final int startFood;
+        private final int startAxes;
+        private final int startRafts;
+        private final RestStop[] prefix;
+        private final StringBuilder buffer = new StringBuilder();
+        private int top;
+        private int solutionTop;
+        private final List<RestStop> path = new AbstractList<RestStop>()
+        {
+            @Override
+            public RestStop get(int index)
+            {
+                if (index < 0 || index >= size())
+                {
+                    throw new IndexOutOfBoundsException("index in get method must be between 0 and size");
+                }
+                return (index < startSteps) ? prefix[index] : frames[index - startSteps].node.data;
+            }
+
+            @Override
+            public int size()
+            {
+                return startSteps + solutionTop + 1;
+            }
+        };
+
+        /**
+         * Constructor for the solver, starting at a rest stop with the hiker's supplies on arrival.
+         *
+         * @param start the rest stop the search starts at, or null for no search
+         * @param steps the number of steps taken down the mountain to reach start
+         * @param food the hiker's food on arrival at start
+         * @param axes the hiker's axes on arrival at start
+         * @param rafts the hiker's rafts on arrival at start
+         * @param prefix the rest stops of the path down to start, excluding start, in its first steps slots
+         */
+        public Solver(Node start, int steps, int food, int axes, int rafts, RestStop[] prefix)
+        {
+            lastSteps = (root == null) ? -1 : root.height - 1;
+            startSteps = steps;
+            startFood = food;
+            startAxes = axes;
+            startRafts = rafts;
+            this.prefix = prefix;
+            frames = new Frame[(start == null) ? 0 : Math.min(start.height, lastSteps - steps + 1)];
+            top = -1;
+            if (start != null && frames.length > 0)
+            {
+                push(start);
+            }
+        }
+
+        /**
+         * Pushes a frame for a rest stop that has not been visited yet.
+         *
+         * @param node the rest stop being visited next
+         */
+        private void push(Node node)
+        {
+            top++;
+            if (frames[top] == null)
+            {
+                frames[top] = new Frame();
+            }
+            frames[top].node = node;
+            frames[top].phase = ENTER;
+        }
+
+        /**
+         * Continues the search until the next safe solution is found.
+         *
+         * @return true if another solution was found; otherwise,
+         *         false
+         */
+        public boolean findNext()
+        {
+            while (top >= 0)
+            {
+                Frame frame = frames[top];
+                if (frame.phase == LEFT_DONE)
+                {
+                    frame.phase = RIGHT_DONE;
+                    if (frame.node.right != null)
+                    {
+                        push(frame.node.right);
+                    }
+                    continue;
+                }
+                if (frame.phase == RIGHT_DONE)
+                {
+                    top--;
+                    continue;
+                }
+                //arriving at a rest stop, with the supplies the parent had after eating
+                int food = (top == 0) ? startFood : frames[top - 1].food;
+                int axes = (top == 0) ? startAxes : frames[top - 1].axes;
+                int rafts = (top == 0) ? startRafts : frames[top - 1].rafts;
+                RestStop stop = frame.node.data;
+                if (!visit(stop, food, axes, rafts, frame))
+                {
+                    top--;
+                    continue;
+                }
+                if (startSteps + top == lastSteps)
+                {
+                    solutionTop = top;
+                    top--;
+                    return true;
+                }
+                if (frame.food <= 0)
+                {
+                    top--;
+                    continue;
+                }
+                frame.food--;
+                frame.phase = LEFT_DONE;
+                if (frame.node.left != null)
+                {
+                    push(frame.node.left);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Renders the solution found by the last successful call to findNext into the reusable buffer.
+         * The path is the prefix the solver started with followed by the rest stops of the frames, so
+         * nothing is built up while the search moves and each solution costs time linear in its length.
+         *
+         * @return the solution, in string label format
+         */
+        public String getSolution()
+        {
+            buffer.setLength(0);
+            appendLabels(buffer, prefix, startSteps);
+            for (int i = 0; i < solutionTop; i++)
+            {
+                buffer.append(frames[i].node.data.getLabel()).append(' ');
+            }
+            return buffer.append(frames[solutionTop].node.data.getLabel()).toString();
+        }
+
+        /**
+         * Obtains the solution found by the last successful call to findNext as a view of the path,
+         * which stays valid until findNext is called again.
+         *
+         * @return the rest stops of the solution, from the top of the mountain down
+         */
+        public List<RestStop> getPath()
+        {
+            return path;
+        }
+    }
+
+    /**
+     * A task of the parallel search, covering the safe solutions below one rest stop. It walks down the
+     * mountain one rest stop at a time, always continuing into the bigger subtree. The smaller subtree
+     * becomes a forked task if it is big enough and the task may still split, and otherwise is solved
+     * on the spot with a Solver. Parts found for left subtrees go before everything the walk finds later,
+     * and parts found for right subtrees go after, so the merged solutions keep the sequential order.
+     * Every part supplies a list of solutions, either one already found or one joined from a forked task.
+     * Splitting is limited to a fixed number of levels, which also bounds how deeply joins can nest.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class SolveTask extends RecursiveTask<ArrayList<String>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Node start;
+        private final int steps;
+        private final int food;
+        private final int axes;
+        private final int rafts;
+        private final RestStop[] prefix;
+        private final int splits;
+        private final int threshold;
+
+        /**
+         * Constructor for the task, starting at a rest stop with the hiker's supplies on arrival.
+         *
+         * @param start the rest stop the task starts at, or null for no search
+         * @param steps the number of steps taken down the mountain to reach start
+         * @param food the hiker's food on arrival at start
+         * @param axes the hiker's axes on arrival at start
+         * @param rafts the hiker's rafts on arrival at start
+         * @param prefix the rest stops of the path down to start, excluding start, in its first steps slots
+         * @param splits the number of times the search below start may still be split
+         * @param threshold the smallest subtree size worth a task of its own
+         */
+        public SolveTask(Node start, int steps, int food, int axes, int rafts, RestStop[] prefix, int splits,
+                         int threshold)
+        {
+            this.start = start;
+            this.steps = steps;
+            this.food = food;
+            this.axes = axes;
+            this.rafts = rafts;
+            this.prefix = prefix;
+            this.splits = splits;
+            this.threshold = threshold;
+        }
+
+        /**
+         * Finds the safe solutions below the start of this task.
+         *
+         * @return the solutions, in the same order as getSolutions would find them
+         */
+        @Override
+        protected ArrayList<String> compute()
+        {
+            ArrayList<Supplier<ArrayList<String>>> before = new ArrayList<Supplier<ArrayList<String>>>();
+            ArrayList<Supplier<ArrayList<String>>> after = new ArrayList<Supplier<ArrayList<String>>>();
+            int lastSteps = (root == null) ? -1 : root.height - 1;
+            Frame state = new Frame();
+            Node node = start;
+            int steps = this.steps;
+            int food = this.food;
+            int axes = this.axes;
+            int rafts = this.rafts;
+            RestStop[] path = Arrays.copyOf(prefix, Math.max(lastSteps + 1, steps));
+            int splits = this.splits;
+            while (node != null)
+            {
+                if (splits == 0 || sizeOf(node) < threshold)
+                {
+                    ArrayList<String> found = solve(node, steps, food, axes, rafts, path);
+                    before.add(() -> found);
+                    break;
+                }
+                if (!visit(node.data, food, axes, rafts, state))
+                {
+                    break;
+                }
+                if (steps == lastSteps)
+                {
+                    StringBuilder solution = new StringBuilder();
+                    appendLabels(solution, path, steps);
+                    ArrayList<String> found = new ArrayList<String>(1);
+                    found.add(solution.append(node.data.getLabel()).toString());
+                    before.add(() -> found);
+                    break;
+                }
+                if (state.food <= 0)
+                {
+                    break;
+                }
+                steps++;
+                food = state.food - 1;
+                axes = state.axes;
+                rafts = state.rafts;
+                path[steps - 1] = node.data;
+                boolean goLeft = sizeOf(node.left) > sizeOf(node.right);
+                Node other = goLeft ? node.right : node.left;
+                Supplier<ArrayList<String>> part = null;
+                if (sizeOf(other) >= threshold)
+                {
+                    splits--;
+                    SolveTask task = new SolveTask(other, steps, food, axes, rafts, Arrays.copyOf(path, steps),
+                                                   splits, threshold);
+                    task.fork();
+                    part = task::join;
+                }
+                else if (other != null)
+                {
+                    ArrayList<String> found = solve(other, steps, food, axes, rafts, path);
+                    part = () -> found;
+                }
+                if (part != null)
+                {
+                    (goLeft ? after : before).add(part);
+                }
+                node = goLeft ? node.left : node.right;
+            }
+            ArrayList<String> solutions = new ArrayList<String>();
+            for (Supplier<ArrayList<String>> part : before)
+            {
+                solutions.addAll(part.get());
+            }
+            for (int i = after.size() - 1; i >= 0; i--)
+            {
+                solutions.addAll(after.get(i).get());
+            }
+            return solutions;
+        }
+
+        /**
+         * Finds the safe solutions below a rest stop sequentially.
+         *
+         * @param node the rest stop the search starts at
+         * @param steps the number of steps taken down the mountain to reach node
+         * @param food the hiker's food on arrival at node
+         * @param axes the hiker's axes on arrival at node
+         * @param rafts the hiker's rafts on arrival at node
+         * @param path the rest stops of the path down to node, excluding node, in its first steps slots
+         * @return the solutions found
+         */
+        private ArrayList<String> solve(Node node, int steps, int food, int axes, int rafts, RestStop[] path)
+        {
+            ArrayList<String> solutions = new ArrayList<String>();
+            Solver solver = new Solver(node, steps, food, axes, rafts, path);
+            while (solver.findNext())
+            {
+                solutions.add(solver.getSolution());
+            }
+            return solutions;
+        }
+    }
+
+    /**
+     * One level of the path of a Solver: the rest stop at that level, how far its visit has got, and
+     * the hiker's supplies after eating there, which both of its children start from.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class Frame
+    {
+        private Node node;
+        private int phase;
+        private int food;
+        private int axes;
+        private int rafts;
+    }
 }
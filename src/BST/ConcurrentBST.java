@@ -0,0 +1,1299 @@
+package BST;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A BST that can be shared between threads. Writers are serialized by the write lock of a StampedLock,
+ * while the lookups (contains, ceiling, floor, higher and lower) first run without any lock as an
+ * optimistic read and only take the read lock if a writer got in the way. Since an optimistic read can
+ * see the tree half way through a rotation, every lock-free search is bounded by the number of nodes in
+ * the tree, so it can never loop, and its result is only used once the stamp has been validated.
+ * The inorder, descending and range iterators are lazy and weakly consistent: each step is an
+ * optimistic read of the iterator's stack, and only if a writer got in the way is the stack rebuilt
+ * under the read lock, from the last element returned, so they never throw a
+ * ConcurrentModificationException and keep just O(height) nodes. The preorder and postorder iterators
+ * cannot resume from an element that way, so they copy all the elements under the read lock instead,
+ * costing O(n) memory and blocking writers while the copy is made.
+ *
+ * @param <E> the data type stored in the nodes of this BST
+ *
+ * @author Shrey Khater
+ * @version 12/5/22
+ */
+public class ConcurrentBST<E extends Comparable<E>> extends BST<E>
+{
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Constructor for ConcurrentBST objects.
+     */
+    public ConcurrentBST()
+    {
+        super();
+    }
+
+    /**
+     * Constructor for ConcurrentBST objects that rebalance themselves with the given strategy.
+     *
+     * @param balancing the balancing strategy used on every add and remove
+     */
+    public ConcurrentBST(Balancing balancing)
+    {
+        super(balancing);
+    }
+
+    /**
+     * Adds an element to this BST while holding the write lock.
+     *
+     * @param data the element to be added
+     * @return true if the element was able ot be added; otherwise,
+     *         false
+     */
+    @Override
+    public boolean add(E data)
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            return super.add(data);
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes an element from this BST while holding the write lock.
+     *
+     * @param o the element to be removed
+     * @return true if the element was able to be removed; otherwise,
+     *         false.
+     */
+    @Override
+    public boolean remove(Object o)
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            return super.remove(o);
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Makes this BST empty while holding the write lock.
+     */
+    @Override
+    public void clear()
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            super.clear();
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes and returns the first, or lowest, element in this BST as one atomic step.
+     *
+     * @return the least element, or null if this BST is empty
+     */
+    @Override
+    public E pollFirst()
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            if (root == null)
+            {
+                return null;
+            }
+            E first = super.first();
+            super.remove(first);
+            return first;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes and returns the last, or highest, element in this BST as one atomic step.
+     *
+     * @return the greatest element, or null if this BST is empty
+     */
+    @Override
+    public E pollLast()
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            if (root == null)
+            {
+                return null;
+            }
+            E last = super.last();
+            super.remove(last);
+            return last;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes and returns the least or greatest element between two bounds as one atomic step, so that
+     * two range views polling at once can never both return the same element.
+     *
+     * @param lo the lower bound, or null for no lower bound
+     * @param loInclusive whether an element equal to lo can be removed
+     * @param hi the upper bound, or null for no upper bound
+     * @param hiInclusive whether an element equal to hi can be removed
+     * @param highest true to remove the greatest element in range, false to remove the least
+     * @return the element removed, or null if there is none between lo and hi
+     */
+    @Override
+    protected E pollBetween(E lo, boolean loInclusive, E hi, boolean hiInclusive, boolean highest)
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            E e = highest ? super.findFloor(hi, hiInclusive) : super.findCeiling(lo, loInclusive);
+            if (e == null || !isBetween(e, lo, loInclusive, hi, hiInclusive))
+            {
+                return null;
+            }
+            super.remove(e);
+            return e;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds every element of a collection to this BST as one atomic step, merging sorted input in
+     * O(n + m) like BST does. The collection is copied before the write lock is taken, since it may be
+     * a view of this BST whose size and iterator need the read lock.
+     *
+     * @param c the elements to be added
+     * @return true if this BST changed; otherwise,
+     *         false
+     */
+    @Override
+    public boolean addAll(Collection<? extends E> c)
+    {
+        if (c == this)
+        {
+            return false;
+        }
+        boolean sorted = isNaturallySorted(c);
+        ArrayList<E> elements = new ArrayList<E>(c);
+        long stamp = lock.writeLock();
+        try
+        {
+            if (sorted && mergePays(elements.size()))
+            {
+                return mergeSorted(elements.iterator());
+            }
+            boolean changed = false;
+            for (E e : elements)
+            {
+                changed |= super.add(e);
+            }
+            return changed;
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Splits this BST around a key while holding the write lock, so that no reader sees it half cut up.
+     * The halves are plain BSTs, since no other thread can have seen them yet.
+     *
+     * @param key the key to split around
+     * @return the two halves, and the element equal to the key if there was one
+     */
+    @Override
+    public Split split(E key)
+    {
+        long stamp = lock.writeLock();
+        try
+        {
+            return super.split(key);
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks if the BST contains a certain element, without locking unless a writer interferes.
+     *
+     * @param o the element being searched for
+     * @return true if the BST contains o; otherwise,
+     *         false
+     */
+    @Override
+    public boolean contains(Object o)
+    {
+        if (o == null)
+        {
+            throw new NullPointerException("object cannot be null");
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L)
+        {
+            try
+            {
+                @SuppressWarnings("unchecked")
+                E element = (E) o;
+                boolean found = boundedContains(element);
+                if (lock.validate(stamp))
+                {
+                    return found;
+                }
+            }
+            catch (RuntimeException e)
+            {
+                //the read was inconsistent (or the argument is bad), so the locked read decides
+            }
+        }
+        stamp = lock.readLock();
+        try
+        {
+            return super.contains(o);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Answers a batch of ceiling queries while holding the read lock, so every answer comes from the same
+     * version of the tree.
+     *
+     * @param probes the elements being compared to, preferably in increasing order
+     * @param results the array receiving the answers, or null where there is none
+     */
+    @Override
+    public void ceilingAll(E[] probes, E[] results)
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            super.ceilingAll(probes, results);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Answers a batch of higher queries while holding the read lock, so every answer comes from the same
+     * version of the tree.
+     *
+     * @param probes the elements being compared to, preferably in increasing order
+     * @param results the array receiving the answers, or null where there is none
+     */
+    @Override
+    public void higherAll(E[] probes, E[] results)
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            super.higherAll(probes, results);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Answers a batch of floor queries while holding the read lock, so every answer comes from the same
+     * version of the tree.
+     *
+     * @param probes the elements being compared to, preferably in increasing order
+     * @param results the array receiving the answers, or null where there is none
+     */
+    @Override
+    public void floorAll(E[] probes, E[] results)
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            super.floorAll(probes, results);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Answers a batch of lower queries while holding the read lock, so every answer comes from the same
+     * version of the tree.
+     *
+     * @param probes the elements being compared to, preferably in increasing order
+     * @param results the array receiving the answers, or null where there is none
+     */
+    @Override
+    public void lowerAll(E[] probes, E[] results)
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            super.lowerAll(probes, results);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the smallest element in this tree greater than or equal to the given element, without
+     * locking unless a writer interferes.
+     *
+     * @param e the "ceiling" element being compared to
+     * @return the smallest element greater than or equal to the ceiling, or null
+     */
+    @Override
+    public E ceiling(E e)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("Ceiling cannot be called with an empty value");
+        }
+        return optimisticBound(e, true, true);
+    }
+
+    /**
+     * Returns the smallest element in this tree greater than the given element, without locking unless
+     * a writer interferes.
+     *
+     * @param e the "higher" element being compared to
+     * @return the smallest element greater than the ceiling, or null
+     */
+    @Override
+    public E higher(E e)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("Higher cannot be called with an empty value");
+        }
+        return optimisticBound(e, true, false);
+    }
+
+    /**
+     * Returns the biggest element in this tree less than or equal to the given element, without locking
+     * unless a writer interferes.
+     *
+     * @param e the "floor" element being compared to
+     * @return the biggest element less than or equal to the floor, or null
+     */
+    @Override
+    public E floor(E e)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("Floor cannot be called with an empty value");
+        }
+        return optimisticBound(e, false, true);
+    }
+
+    /**
+     * Returns the biggest element in this tree less than the given element, without locking unless a
+     * writer interferes.
+     *
+     * @param e the "lower" element being compared to
+     * @return the biggest element less than the lower, or null
+     */
+    @Override
+    public E lower(E e)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("Lower cannot be called with an empty value");
+        }
+        return optimisticBound(e, false, false);
+    }
+
+    /**
+     * Finds the smallest element greater than (or equal to) the given element for the range views,
+     * without locking unless a writer interferes.
+     *
+     * @param e the element being compared to, or null to find the first element
+     * @param inclusive whether an element equal to e can be returned
+     * @return the smallest element greater than (or equal to) e, or null if there is none
+     */
+    @Override
+    protected E findCeiling(E e, boolean inclusive)
+    {
+        return optimisticBound(e, true, inclusive);
+    }
+
+    /**
+     * Finds the biggest element less than (or equal to) the given element for the range views, without
+     * locking unless a writer interferes.
+     *
+     * @param e the element being compared to, or null to find the last element
+     * @param inclusive whether an element equal to e can be returned
+     * @return the biggest element less than (or equal to) e, or null if there is none
+     */
+    @Override
+    protected E findFloor(E e, boolean inclusive)
+    {
+        return optimisticBound(e, false, inclusive);
+    }
+
+    /**
+     * Obtains the size of this BST.
+     *
+     * @return the size
+     */
+    @Override
+    public int size()
+    {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (!lock.validate(stamp))
+        {
+            stamp = lock.readLock();
+            try
+            {
+                result = size;
+            }
+            finally
+            {
+                lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if this BST is empty.
+     *
+     * @return true if empty; otherwise,
+     *         false
+     */
+    @Override
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Obtains the height of this BST while holding the read lock.
+     *
+     * @return the height
+     */
+    @Override
+    public int height()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return super.height();
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Obtain the first, or lowest, element in this BST while holding the read lock.
+     *
+     * @return the least element
+     */
+    @Override
+    public E first()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return super.first();
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Obtain the last, or highest, element in this BST while holding the read lock.
+     *
+     * @return the greatest element
+     */
+    @Override
+    public E last()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return super.last();
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Obtains the element at a certain index in the inorder traversal of the tree while holding the
+     * read lock.
+     *
+     * @param index the index in the inorder traversal of the tree being obtained from
+     * @return the element at index
+     */
+    @Override
+    public E get(int index)
+    {
+        return select(index);
+    }
+
+    /**
+     * Obtains the element with a certain rank while holding the read lock.
+     *
+     * @param index the rank of the element, between 0 and size - 1
+     * @return the element with the given rank
+     */
+    @Override
+    public E select(int index)
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return super.select(index);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Obtains the rank of an element while holding the read lock.
+     *
+     * @param e the element whose rank is wanted
+     * @return the number of elements smaller than e
+     */
+    @Override
+    public int rank(E e)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("rank cannot be called with an empty value");
+        }
+        return countBelow(e, false);
+    }
+
+    /**
+     * Counts the elements of this BST between two bounds, both inclusive, as one atomic read.
+     *
+     * @param lo the lower bound of the range
+     * @param hi the upper bound of the range
+     * @return the number of elements e with lo <= e <= hi, or 0 if lo is bigger than hi
+     */
+    @Override
+    public int countRange(E lo, E hi)
+    {
+        if (lo == null || hi == null)
+        {
+            throw new NullPointerException("countRange cannot be called with an empty value");
+        }
+        if (lo.compareTo(hi) > 0)
+        {
+            return 0;
+        }
+        long stamp = lock.readLock();
+        try
+        {
+            return super.countBelow(hi, true) - super.countBelow(lo, false);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Counts the elements of this BST smaller than (or equal to) a given element while holding the
+     * read lock.
+     *
+     * @param e the element being compared to
+     * @param inclusive whether elements equal to e are counted as well
+     * @return the number of elements smaller than e, or smaller than or equal to e if inclusive
+     */
+    @Override
+    protected int countBelow(E e, boolean inclusive)
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return super.countBelow(e, inclusive);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Checks if this BST's elements are the same as another BST's elements, walking both with weakly
+     * consistent iterators. Any other Set is compared by size and containsAll, as AbstractSet does.
+     *
+     * @param obj the other set being compared to
+     * @return true if the elements are the same; otherwise,
+     *         false
+     */
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof BST))
+        {
+            return super.equals(obj);
+        }
+        @SuppressWarnings("unchecked")
+        BST<E> compare = (BST<E>) obj;
+        if (size() != compare.size() || hashCode() != compare.hashCode())
+        {
+            return false;
+        }
+        Iterator<E> current = iterator();
+        Iterator<E> other = compare.iterator();
+        while (current.hasNext())
+        {
+            if (!other.hasNext() || !current.next().equals(other.next()))
+            {
+                return false;
+            }
+        }
+        return !other.hasNext();
+    }
+
+    /**
+     * Obtains the hash code of this BST under the read lock, switching to the write lock only if the sum
+     * has to be recomputed after a split.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            if (!contentHashStale)
+            {
+                return contentHash;
+            }
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+        stamp = lock.writeLock();
+        try
+        {
+            return super.hashCode();
+        }
+        finally
+        {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Writes the single line representation of this BST while holding the read lock.
+     *
+     * @param out the destination of the representation
+     * @throws IOException if the destination cannot be written to
+     */
+    @Override
+    public void writeTo(Appendable out) throws IOException
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            super.writeTo(out);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Counts the elements between two bounds while holding the read lock, so that both ends are counted
+     * in the same version of the tree.
+     *
+     * @param lo the lower bound, or null for no lower bound
+     * @param loInclusive whether an element equal to lo is counted
+     * @param hi the upper bound, or null for no upper bound
+     * @param hiInclusive whether an element equal to hi is counted
+     * @return the number of elements between lo and hi
+     */
+    @Override
+    protected int countBetween(E lo, boolean loInclusive, E hi, boolean hiInclusive)
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            int below = (lo == null) ? 0 : super.countBelow(lo, !loInclusive);
+            int upTo = (hi == null) ? size : super.countBelow(hi, hiInclusive);
+            return Math.max(0, upTo - below);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Compiles this BST into a FrozenBST while holding the read lock, so that the copy is a single
+     * version of the tree.
+     *
+     * @return the frozen copy of this BST
+     */
+    @Override
+    public FrozenBST<E> freeze()
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            return super.freeze();
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Saves this BST while holding the read lock, so the file holds a single version of the tree.
+     *
+     * @param path the file being written
+     * @param codec the codec converting the keys to bytes
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void save(Path path, KeyCodec<? super E> codec) throws IOException
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            super.save(path, codec);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Writes the multi-line representation of this BST while holding the read lock.
+     *
+     * @param out the destination of the representation
+     * @param maxDepth the deepest level written, where the root is at level 0
+     * @throws IOException if the destination cannot be written to
+     */
+    @Override
+    public void writeTreeFormatTo(Appendable out, int maxDepth) throws IOException
+    {
+        long stamp = lock.readLock();
+        try
+        {
+            super.writeTreeFormatTo(out, maxDepth);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Creates a weakly consistent inorder iterator over this BST.
+     *
+     * @return the inorder iterator
+     */
+    @Override
+    public Iterator<E> iterator()
+    {
+        return new OptimisticIterator(false, null, false, null, false);
+    }
+
+    /**
+     * Creates a weakly consistent spliterator over this BST. Its size is unknown, since writers can
+     * change it while the spliterator runs, and splitting it copies batches of elements.
+     *
+     * @return the spliterator
+     */
+    @Override
+    public Spliterator<E> spliterator()
+    {
+        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.SORTED | Spliterator.DISTINCT
+                                                   | Spliterator.ORDERED | Spliterator.NONNULL);
+    }
+
+    /**
+     * Creates a preorder iterator over a snapshot of this BST, copied under the read lock.
+     *
+     * @return the preorder iterator
+     */
+    @Override
+    public Iterator<E> preorderIterator()
+    {
+        return snapshot(() -> super.preorderIterator());
+    }
+
+    /**
+     * Creates a postorder iterator over a snapshot of this BST, copied under the read lock.
+     *
+     * @return the postorder iterator
+     */
+    @Override
+    public Iterator<E> postorderIterator()
+    {
+        return snapshot(() -> super.postorderIterator());
+    }
+
+    /**
+     * Creates a weakly consistent iterator over the elements of this BST between two bounds, which the
+     * descending iterator and the range views use.
+     *
+     * @param descending whether the elements are visited from the greatest to the least
+     * @param start the bound the iteration starts from, or null to start at the first element
+     * @param startInclusive whether the start bound itself can be visited
+     * @param end the bound the iteration stops at, or null to run to the last element
+     * @param endInclusive whether the end bound itself can be visited
+     * @return the range iterator
+     */
+    @Override
+    protected Iterator<E> rangeIterator(boolean descending, E start, boolean startInclusive, E end,
+                                        boolean endInclusive)
+    {
+        return new OptimisticIterator(descending, start, startInclusive, end, endInclusive);
+    }
+
+    /**
+     * Runs a lock-free search for the ceiling or floor of an element and validates it, falling back on
+     * the same search under the read lock if a writer interfered.
+     *
+     * @param e the element being compared to, or null for no bound
+     * @param ceiling true to search for a ceiling, false to search for a floor
+     * @param inclusive whether an element equal to e can be returned
+     * @return the element found, or null if there is none
+     */
+    private E optimisticBound(E e, boolean ceiling, boolean inclusive)
+    {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L)
+        {
+            try
+            {
+                E result = boundedBound(e, ceiling, inclusive);
+                if (lock.validate(stamp))
+                {
+                    return result;
+                }
+            }
+            catch (RuntimeException ex)
+            {
+                //the read was inconsistent (or the argument is bad), so the locked read decides
+            }
+        }
+        stamp = lock.readLock();
+        try
+        {
+            return ceiling ? super.findCeiling(e, inclusive) : super.findFloor(e, inclusive);
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Searches for an element without a lock, giving up once it has taken more steps than there are
+     * nodes in the tree (which only happens when it raced with a rotation).
+     *
+     * @param e the element being searched for
+     * @return true if the element was found; otherwise,
+     *         false
+     */
+    private boolean boundedContains(E e)
+    {
+        int steps = size + 1;
+        Node cur = root;
+        while (cur != null)
+        {
+            if (--steps < 0)
+            {
+                throw new ConcurrentModificationException("optimistic read raced with a writer");
+            }
+            int compare = e.compareTo(cur.data);
+            if (compare == 0)
+            {
+                return true;
+            }
+            cur = (compare < 0) ? cur.left : cur.right;
+        }
+        return false;
+    }
+
+    /**
+     * Searches for the ceiling or floor of an element without a lock, giving up once it has taken more
+     * steps than there are nodes in the tree (which only happens when it raced with a rotation).
+     *
+     * @param e the element being compared to, or null for no bound
+     * @param ceiling true to search for a ceiling, false to search for a floor
+     * @param inclusive whether an element equal to e can be returned
+     * @return the element found, or null if there is none
+     */
+    private E boundedBound(E e, boolean ceiling, boolean inclusive)
+    {
+        int steps = size + 1;
+        Node cur = root;
+        Node bound = null;
+        while (cur != null)
+        {
+            if (--steps < 0)
+            {
+                throw new ConcurrentModificationException("optimistic read raced with a writer");
+            }
+            int compare = (e == null) ? (ceiling ? -1 : 1) : e.compareTo(cur.data);
+            if (ceiling)
+            {
+                compare = -compare;
+            }
+            if (compare > 0 || (compare == 0 && inclusive))
+            {
+                bound = cur;
+                cur = ceiling ? cur.left : cur.right;
+            }
+            else
+            {
+                cur = ceiling ? cur.right : cur.left;
+            }
+        }
+        return (bound == null) ? null : bound.data;
+    }
+
+    /**
+     * Copies the elements returned by an iterator of this BST while holding the read lock, and returns
+     * an iterator over the copy. Removing through the returned iterator removes from the BST.
+     *
+     * @param source opens the unlocked iterator of the underlying BST to be copied
+     * @return the iterator over the snapshot
+     */
+    private Iterator<E> snapshot(Supplier<Iterator<E>> source)
+    {
+        ArrayList<E> elements = new ArrayList<E>();
+        long stamp = lock.readLock();
+        try
+        {
+            Iterator<E> iterator = source.get();
+            while (iterator.hasNext())
+            {
+                elements.add(iterator.next());
+            }
+        }
+        finally
+        {
+            lock.unlockRead(stamp);
+        }
+        return new SnapshotIterator(elements);
+    }
+
+    /**
+     * An iterator over a snapshot of the elements of this BST, which needs no lock while iterating.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class SnapshotIterator implements Iterator<E>
+    {
+        private final ArrayList<E> elements;
+        private int current = 0;
+        private boolean canRemove = false;
+
+        /**
+         * Constructor for the snapshot iterator.
+         *
+         * @param elements the snapshot of the elements, in iteration order
+         */
+        public SnapshotIterator(ArrayList<E> elements)
+        {
+            this.elements = elements;
+        }
+
+        /**
+         * Checks if the iterator has a next element.
+         *
+         * @return true if a next element exists; otherwise,
+         *         false
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return current < elements.size();
+        }
+
+        /**
+         * Iterates to the next element of the snapshot.
+         *
+         * @return the next element
+         */
+        @Override
+        public E next()
+        {
+            if (current >= elements.size())
+            {
+                throw new NoSuchElementException("end of iterator reached");
+            }
+            canRemove = true;
+            return elements.get(current++);
+        }
+
+        /**
+         * Removes the last element returned by this iterator from the BST.
+         */
+        @Override
+        public void remove()
+        {
+            if (!canRemove)
+            {
+                throw new IllegalStateException("next must be called before remove");
+            }
+            canRemove = false;
+            ConcurrentBST.this.remove(elements.get(current - 1));
+        }
+    }
+
+    /**
+     * A lazy iterator over the elements of this BST between two bounds. The next element is always
+     * found one step ahead: the step runs without a lock against the stamp of the last locked read, and
+     * is kept only if the stamp is still valid afterwards. Otherwise the stack is rebuilt under the read
+     * lock, down to the first element past the last one returned, so a writer never makes the iteration
+     * fail and an element is never returned twice.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class OptimisticIterator implements Iterator<E>
+    {
+        private final boolean descending;
+        private final E end;
+        private final boolean endInclusive;
+        private final ArrayDeque<Node> stack = new ArrayDeque<Node>();
+        private long stamp;
+        private E next;
+        private E lastReturned;
+
+        /**
+         * Constructor for the optimistic iterator. Finds the first element of the range under the read
+         * lock.
+         *
+         * @param descending whether the elements are visited from the greatest to the least
+         * @param start the bound the iteration starts from, or null to start at the first element
+         * @param startInclusive whether the start bound itself can be visited
+         * @param end the bound the iteration stops at, or null to run to the last element
+         * @param endInclusive whether the end bound itself can be visited
+         */
+        public OptimisticIterator(boolean descending, E start, boolean startInclusive, E end,
+                                  boolean endInclusive)
+        {
+            this.descending = descending;
+            this.end = end;
+            this.endInclusive = endInclusive;
+            long readStamp = lock.readLock();
+            try
+            {
+                seek(start, startInclusive);
+                next = step();
+            }
+            finally
+            {
+                stamp = lock.tryConvertToOptimisticRead(readStamp);
+            }
+        }
+
+        /**
+         * Checks if the iterator has a next element.
+         *
+         * @return true if a next element exists; otherwise,
+         *         false
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        /**
+         * Iterates to the next element, then finds the one after it.
+         *
+         * @return the next element
+         */
+        @Override
+        public E next()
+        {
+            if (next == null)
+            {
+                throw new NoSuchElementException("end of iterator reached");
+            }
+            lastReturned = next;
+            advance(lastReturned);
+            return lastReturned;
+        }
+
+        /**
+         * Removes the last element returned by this iterator from the BST.
+         */
+        @Override
+        public void remove()
+        {
+            if (lastReturned == null)
+            {
+                throw new IllegalStateException("next must be called before remove");
+            }
+            E removed = lastReturned;
+            lastReturned = null;
+            ConcurrentBST.this.remove(removed);
+        }
+
+        /**
+         * Finds the element following another one, optimistically if no writer has run since the last
+         * locked read, and otherwise by seeking past it under the read lock.
+         *
+         * @param previous the element the next one has to follow
+         */
+        private void advance(E previous)
+        {
+            if (lock.validate(stamp))
+            {
+                try
+                {
+                    E found = step();
+                    if (lock.validate(stamp))
+                    {
+                        next = found;
+                        return;
+                    }
+                }
+                catch (RuntimeException ex)
+                {
+                    //the read was inconsistent, so the locked read decides
+                }
+            }
+            long readStamp = lock.readLock();
+            try
+            {
+                seek(previous, false);
+                next = step();
+            }
+            finally
+            {
+                stamp = lock.tryConvertToOptimisticRead(readStamp);
+            }
+        }
+
+        /**
+         * Rebuilds the stack so that its top is the first element at or past a bound in the direction of
+         * this iterator. Only called under the read lock.
+         *
+         * @param start the bound to seek to, or null to seek to the first element
+         * @param inclusive whether an element equal to the bound can be the top of the stack
+         */
+        private void seek(E start, boolean inclusive)
+        {
+            stack.clear();
+            Node cur = root;
+            while (cur != null)
+            {
+                int compare = 1;
+                if (start != null)
+                {
+                    compare = descending ? start.compareTo(cur.data) : cur.data.compareTo(start);
+                }
+                if (compare > 0 || (compare == 0 && inclusive))
+                {
+                    stack.push(cur);
+                    cur = descending ? cur.right : cur.left;
+                }
+                else
+                {
+                    cur = descending ? cur.left : cur.right;
+                }
+            }
+        }
+
+        /**
+         * Pops the top of the stack and pushes the path down to its successor, giving up once it has
+         * pushed more nodes than there are in the tree (which only happens when it raced with a rotation).
+         *
+         * @return the element popped, or null if there is none left inside the range
+         */
+        private E step()
+        {
+            if (stack.isEmpty())
+            {
+                return null;
+            }
+            Node node = stack.pop();
+            int steps = size + 1;
+            Node cur = descending ? node.left : node.right;
+            while (cur != null)
+            {
+                if (--steps < 0)
+                {
+                    throw new ConcurrentModificationException("optimistic read raced with a writer");
+                }
+                stack.push(cur);
+                cur = descending ? cur.right : cur.left;
+            }
+            E data = node.data;
+            if (end != null)
+            {
+                int compare = data.compareTo(end);
+                if (descending)
+                {
+                    compare = -compare;
+                }
+                if (compare > 0 || (compare == 0 && !endInclusive))
+                {
+                    stack.clear();
+                    return null;
+                }
+            }
+            return data;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package BST;
+import java.util.*;
+
+/**
+ * A read-only copy of a BST compiled into the Eytzinger layout, which BST.freeze() creates. The elements
+ * are stored in one array in breadth-first order of a complete tree (the children of slot k are slots 2k
+ * and 2k + 1), so a search touches one array instead of chasing Node pointers around the heap, and the
+ * first levels of every search share the same few cache lines. The descent always moves to slot 2k or
+ * 2k + 1, picking between them with a ternary on the comparison, but whether the compiled code is
+ * branch-free depends on the JIT turning that ternary into a conditional move. Java has no explicit
+ * prefetch instruction, so none is issued; the layout only keeps the next slots of a search close
+ * together in memory for the hardware prefetcher. A second array holds the elements in sorted
+ * order, so that get and the iterator stay O(1) per element, and a third maps every slot of the layout
+ * to its rank. A frozen tree therefore costs two references and an int per element, which is still
+ * less than the Node objects of the BST it was compiled from.
+ *
+ * @param <E> the data type stored in this tree
+ *
+ * @author Shrey Khater
+ * @version 12/5/22
+ */
+public class FrozenBST<E extends Comparable<E>> implements Iterable<E>
+{
+    private final E[] sorted;
+    private final E[] layout;
+    private final int[] layoutRank;
+
+    /**
+     * Constructor for FrozenBST objects, taking over an array of elements in strictly increasing order.
+     *
+     * @param sorted the sorted elements, which must not be changed afterwards
+     */
+    FrozenBST(E[] sorted)
+    {
+        this.sorted = sorted;
+        @SuppressWarnings("unchecked")
+        E[] slots = (E[]) new Comparable<?>[sorted.length + 1];
+        layout = slots;
+        layoutRank = new int[sorted.length + 1];
+        fill(1, 0);
+    }
+
+    /**
+     * Recursive helper method for the constructor that places the sorted elements into the Eytzinger
+     * layout with an inorder walk of the implicit complete tree. The recursion depth is logarithmic.
+     *
+     * @param k the slot of the current node of the implicit tree
+     * @param rank the rank of the first element placed in the subtree of slot k
+     * @return the rank of the first element placed after the subtree of slot k
+     */
+    private int fill(int k, int rank)
+    {
+        if (k >= layout.length)
+        {
+            return rank;
+        }
+        rank = fill(2 * k, rank);
+        layout[k] = sorted[rank];
+        layoutRank[k] = rank;
+        return fill(2 * k + 1, rank + 1);
+    }
+
+    /**
+     * Finds the rank of the first element greater than (or equal to) a given element, by descending the
+     * Eytzinger layout. At the end of the descent, the slot of the answer is recovered by undoing the
+     * right turns taken after the last left turn.
+     *
+     * @param e the element being compared to
+     * @param strict true to find the first element greater than e, false for greater than or equal to e
+     * @return the rank of the element found, or the size of the tree if there is none
+     */
+    private int lowerBound(E e, boolean strict)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("bound cannot be called with an empty value");
+        }
+        int n = layout.length - 1;
+        int k = 1;
+        while (k <= n)
+        {
+            int compare = layout[k].compareTo(e);
+            k = 2 * k + ((compare < 0 || (strict && compare == 0)) ? 1 : 0);
+        }
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        return (k == 0) ? n : layoutRank[k];
+    }
+
+    /**
+     * Checks if this tree contains a certain element.
+     *
+     * @param e the element being searched for
+     * @return true if the tree contains e; otherwise,
+     *         false
+     */
+    public boolean contains(E e)
+    {
+        int rank = lowerBound(e, false);
+        return rank < sorted.length && sorted[rank].compareTo(e) == 0;
+    }
+
+    /**
+     * Returns the smallest element in this tree greater than or equal to the given element.
+     *
+     * @param e the "ceiling" element being compared to
+     * @return the smallest element greater than or equal to the ceiling, or null
+     */
+    public E ceiling(E e)
+    {
+        int rank = lowerBound(e, false);
+        return (rank < sorted.length) ? sorted[rank] : null;
+    }
+
+    /**
+     * Returns the smallest element in this tree greater than the given element.
+     *
+     * @param e the "higher" element being compared to
+     * @return the smallest element greater than the ceiling, or null
+     */
+    public E higher(E e)
+    {
+        int rank = lowerBound(e, true);
+        return (rank < sorted.length) ? sorted[rank] : null;
+    }
+
+    /**
+     * Returns the biggest element in this tree less than or equal to the given element.
+     *
+     * @param e the "floor" element being compared to
+     * @return the biggest element less than or equal to the floor, or null
+     */
+    public E floor(E e)
+    {
+        int rank = lowerBound(e, true) - 1;
+        return (rank >= 0) ? sorted[rank] : null;
+    }
+
+    /**
+     * Returns the biggest element in this tree less than the given element.
+     *
+     * @param e the "lower" element being compared to
+     * @return the biggest element less than the lower, or null
+     */
+    public E lower(E e)
+    {
+        int rank = lowerBound(e, false) - 1;
+        return (rank >= 0) ? sorted[rank] : null;
+    }
+
+    /**
+     * Obtains the rank of an element, meaning the number of elements in this tree smaller than it.
+     *
+     * @param e the element whose rank is wanted
+     * @return the number of elements smaller than e
+     */
+    public int rank(E e)
+    {
+        return lowerBound(e, false);
+    }
+
+    /**
+     * Obtains the element at a certain index in sorted order.
+     *
+     * @param index the index being obtained from
+     * @return the element at index
+     */
+    public E get(int index)
+    {
+        if (index < 0 || index >= sorted.length)
+        {
+            throw new IndexOutOfBoundsException("index in get method must be between 0 and size");
+        }
+        return sorted[index];
+    }
+
+    /**
+     * Obtain the first, or lowest, element in this tree.
+     *
+     * @return the least element
+     */
+    public E first()
+    {
+        if (sorted.length == 0)
+        {
+            throw new NoSuchElementException("first method cannot be called on an empty set");
+        }
+        return sorted[0];
+    }
+
+    /**
+     * Obtain the last, or highest, element in this tree.
+     *
+     * @return the greatest element
+     */
+    public E last()
+    {
+        if (sorted.length == 0)
+        {
+            throw new NoSuchElementException("last method cannot be called on an empty set");
+        }
+        return sorted[sorted.length - 1];
+    }
+
+    /**
+     * Obtains the size of this tree.
+     *
+     * @return the size
+     */
+    public int size()
+    {
+        return sorted.length;
+    }
+
+    /**
+     * Checks if this tree is empty.
+     *
+     * @return true if empty; otherwise,
+     *         false
+     */
+    public boolean isEmpty()
+    {
+        return sorted.length == 0;
+    }
+
+    /**
+     * Creates an iterator over the elements of this tree in sorted order.
+     *
+     * @return the iterator
+     */
+    public Iterator<E> iterator()
+    {
+        return Collections.unmodifiableList(Arrays.asList(sorted)).iterator();
+    }
+
+    /**
+     * Creates a string representation of this tree on a single line, in the same format as BST.
+     *
+     * @return the toString
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (E e : sorted)
+        {
+            sb.append(e).append(", ");
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,756 @@
+package BST;
+import java.util.*;
+
+/**
+ * A BST of int keys that stores them unboxed. The nodes live in parallel arrays (the node
+ * in slot i has its key in keys[i], its children's slots in left[i] and right[i], and its height and
+ * subtree size in height[i] and size[i]), and the keys are an int[] instead of an Object[] of Integers,
+ * so a node costs 20 bytes in total with no per-node object at all, and comparing two keys is a plain int
+ * comparison instead of a call to compareTo. Methods that could find no element take the value to return
+ * in that case, so nothing has to be boxed to signal absence.
+ *
+ * @author Shrey Khater
+ * @version 12/5/22
+ */
+public class IntBST
+{
+    protected static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    protected int[] left;
+    protected int[] right;
+    protected int[] height;
+    protected int[] size;
+    protected int[] keys;
+
+    protected int root = NIL;
+    private int free = NIL;
+    private int used;
+    private int count;
+    private int modCount;
+    private int[] path = new int[DEFAULT_CAPACITY];
+    protected final BST.Balancing balancing;
+
+    /**
+     * Constructor for IntBST objects.
+     */
+    public IntBST()
+    {
+        this(DEFAULT_CAPACITY, BST.Balancing.NONE);
+    }
+
+    /**
+     * Constructor for IntBST objects that rebalance themselves with the given strategy.
+     *
+     * @param balancing the balancing strategy used on every add and remove
+     */
+    public IntBST(BST.Balancing balancing)
+    {
+        this(DEFAULT_CAPACITY, balancing);
+    }
+
+    /**
+     * Constructor for IntBST objects with room for a number of nodes before the arrays have to grow.
+     *
+     * @param capacity the number of nodes the arrays can hold at first
+     * @param balancing the balancing strategy used on every add and remove
+     */
+    public IntBST(int capacity, BST.Balancing balancing)
+    {
+        if (balancing == null)
+        {
+            throw new NullPointerException("balancing strategy cannot be null");
+        }
+        if (capacity < 1)
+        {
+            capacity = 1;
+        }
+        this.balancing = balancing;
+        left = new int[capacity];
+        right = new int[capacity];
+        height = new int[capacity];
+        size = new int[capacity];
+        keys = new int[capacity];
+    }
+
+    /**
+     * Obtains the height of a node, treating NIL as height 0.
+     *
+     * @param node the slot of the node
+     * @return the height
+     */
+    protected int heightOf(int node)
+    {
+        return (node == NIL) ? 0 : height[node];
+    }
+
+    /**
+     * Obtains the size of the subtree of a node, treating NIL as size 0.
+     *
+     * @param node the slot of the node
+     * @return the subtree size
+     */
+    protected int sizeOf(int node)
+    {
+        return (node == NIL) ? 0 : size[node];
+    }
+
+    /**
+     * Takes a slot for a new leaf node, from the free list if possible, growing the arrays if needed.
+     *
+     * @param key the key of the new node
+     * @return the slot of the new node
+     */
+    private int allocate(int key)
+    {
+        int node;
+        if (free != NIL)
+        {
+            node = free;
+            free = left[node];
+        }
+        else
+        {
+            if (used == keys.length)
+            {
+                int capacity = keys.length * 2;
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                height = Arrays.copyOf(height, capacity);
+                size = Arrays.copyOf(size, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            node = used;
+            used++;
+        }
+        left[node] = NIL;
+        right[node] = NIL;
+        height[node] = 1;
+        size[node] = 1;
+        keys[node] = key;
+        return node;
+    }
+
+    /**
+     * Returns the slot of a removed node to the free list.
+     *
+     * @param node the slot of the removed node
+     */
+    private void release(int node)
+    {
+        left[node] = free;
+        right[node] = NIL;
+        free = node;
+    }
+
+    /**
+     * Obtains the array used to record search paths, growing it first if it could be too short for the
+     * current height. The array is reused by every add and remove, so neither allocates once it is big
+     * enough.
+     *
+     * @return the path array
+     */
+    private int[] pathBuffer()
+    {
+        if (path.length <= heightOf(root))
+        {
+            path = new int[2 * heightOf(root) + 1];
+        }
+        return path;
+    }
+
+    /**
+     * Updates the height and subtree size of a node from its children.
+     *
+     * @param node the slot of the node
+     */
+    private void update(int node)
+    {
+        height[node] = 1 + Math.max(heightOf(left[node]), heightOf(right[node]));
+        size[node] = 1 + sizeOf(left[node]) + sizeOf(right[node]);
+    }
+
+    /**
+     * The add method for adding a key to this BST (doesn't add duplicates).
+     *
+     * @param key the key to be added
+     * @return true if the key was able to be added; otherwise,
+     *         false
+     */
+    public boolean add(int key)
+    {
+        int[] path = pathBuffer();
+        int depth = 0;
+        int cur = root;
+        while (cur != NIL)
+        {
+            if (key == keys[cur])
+            {
+                return false;
+            }
+            path[depth++] = cur;
+            cur = (key < keys[cur]) ? left[cur] : right[cur];
+        }
+        int node = allocate(key);
+        if (depth == 0)
+        {
+            root = node;
+        }
+        else if (key < keys[path[depth - 1]])
+        {
+            left[path[depth - 1]] = node;
+        }
+        else
+        {
+            right[path[depth - 1]] = node;
+        }
+        count++;
+        modCount++;
+        retrace(path, depth);
+        return true;
+    }
+
+    /**
+     * Removes a certain key from the BST, if already contained in the tree.
+     *
+     * @param key the key to be removed
+     * @return true if the key was able to be removed; otherwise,
+     *         false.
+     */
+    public boolean remove(int key)
+    {
+        int[] path = pathBuffer();
+        int depth = 0;
+        int cur = root;
+        while (cur != NIL && key != keys[cur])
+        {
+            path[depth++] = cur;
+            cur = (key < keys[cur]) ? left[cur] : right[cur];
+        }
+        if (cur == NIL)
+        {
+            return false;
+        }
+        if (left[cur] == NIL)
+        {
+            replaceChild((depth == 0) ? NIL : path[depth - 1], cur, right[cur]);
+            release(cur);
+        }
+        else if (right[cur] == NIL)
+        {
+            replaceChild((depth == 0) ? NIL : path[depth - 1], cur, left[cur]);
+            release(cur);
+        }
+        else
+        {
+            path[depth++] = cur;
+            int predecessor = left[cur];
+            while (right[predecessor] != NIL)
+            {
+                path[depth++] = predecessor;
+                predecessor = right[predecessor];
+            }
+            keys[cur] = keys[predecessor];
+            replaceChild(path[depth - 1], predecessor, left[predecessor]);
+            release(predecessor);
+        }
+        count--;
+        modCount++;
+        retrace(path, depth);
+        return true;
+    }
+
+    /**
+     * Walks back up a search path after an add or remove, updating and rebalancing every node on it.
+     *
+     * @param path the slots of the nodes on the path, root first
+     * @param depth the number of nodes on the path
+     */
+    private void retrace(int[] path, int depth)
+    {
+        for (int i = depth - 1; i >= 0; i--)
+        {
+            int node = path[i];
+            update(node);
+            int balanced = rebalance(node);
+            if (balanced != node)
+            {
+                replaceChild((i == 0) ? NIL : path[i - 1], node, balanced);
+            }
+        }
+    }
+
+    /**
+     * Replaces a child of a node with another subtree.
+     *
+     * @param parent the slot of the parent, or NIL if the child is the root
+     * @param child the slot of the child being replaced
+     * @param replacement the slot of the subtree taking the child's place
+     */
+    private void replaceChild(int parent, int child, int replacement)
+    {
+        if (parent == NIL)
+        {
+            root = replacement;
+        }
+        else if (left[parent] == child)
+        {
+            left[parent] = replacement;
+        }
+        else
+        {
+            right[parent] = replacement;
+        }
+    }
+
+    /**
+     * Restores the AVL height invariant at a node with single or double rotations. Trees built without
+     * balancing are returned unchanged.
+     *
+     * @param node the slot of the node to be rebalanced
+     * @return the slot of the root of the rebalanced subtree
+     */
+    private int rebalance(int node)
+    {
+        if (balancing != BST.Balancing.AVL)
+        {
+            return node;
+        }
+        int balance = heightOf(left[node]) - heightOf(right[node]);
+        if (balance > 1)
+        {
+            if (heightOf(left[left[node]]) < heightOf(right[left[node]]))
+            {
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1)
+        {
+            if (heightOf(right[right[node]]) < heightOf(left[right[node]]))
+            {
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    /**
+     * Rotates the subtree rooted at a node to the right.
+     *
+     * @param node the slot of the root of the subtree
+     * @return the slot of the new root of the subtree
+     */
+    private int rotateRight(int node)
+    {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates the subtree rooted at a node to the left.
+     *
+     * @param node the slot of the root of the subtree
+     * @return the slot of the new root of the subtree
+     */
+    private int rotateLeft(int node)
+    {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Checks if the BST contains a certain key.
+     *
+     * @param key the key being searched for
+     * @return true if the BST contains key; otherwise,
+     *         false
+     */
+    public boolean contains(int key)
+    {
+        int cur = root;
+        while (cur != NIL)
+        {
+            if (key == keys[cur])
+            {
+                return true;
+            }
+            cur = (key < keys[cur]) ? left[cur] : right[cur];
+        }
+        return false;
+    }
+
+    /**
+     * Returns the smallest key in this tree greater than or equal to the given key.
+     *
+     * @param key the "ceiling" key being compared to
+     * @param missing the value returned if there is no such key
+     * @return the smallest key greater than or equal to the ceiling, or missing
+     */
+    public int ceiling(int key, int missing)
+    {
+        int bound = findBound(key, true, true);
+        return (bound == NIL) ? missing : keys[bound];
+    }
+
+    /**
+     * Returns the smallest key in this tree greater than the given key.
+     *
+     * @param key the "higher" key being compared to
+     * @param missing the value returned if there is no such key
+     * @return the smallest key greater than the ceiling, or missing
+     */
+    public int higher(int key, int missing)
+    {
+        int bound = findBound(key, true, false);
+        return (bound == NIL) ? missing : keys[bound];
+    }
+
+    /**
+     * Returns the biggest key in this tree less than or equal to the given key.
+     *
+     * @param key the "floor" key being compared to
+     * @param missing the value returned if there is no such key
+     * @return the biggest key less than or equal to the floor, or missing
+     */
+    public int floor(int key, int missing)
+    {
+        int bound = findBound(key, false, true);
+        return (bound == NIL) ? missing : keys[bound];
+    }
+
+    /**
+     * Returns the biggest key in this tree less than the given key.
+     *
+     * @param key the "lower" key being compared to
+     * @param missing the value returned if there is no such key
+     * @return the biggest key less than the lower, or missing
+     */
+    public int lower(int key, int missing)
+    {
+        int bound = findBound(key, false, false);
+        return (bound == NIL) ? missing : keys[bound];
+    }
+
+    /**
+     * Helper method for the ceiling, higher, floor and lower methods.
+     *
+     * @param key the key being compared to
+     * @param ceiling true to search for a ceiling, false to search for a floor
+     * @param inclusive whether a key equal to key can be returned
+     * @return the slot of the node found, or NIL if there is none
+     */
+    private int findBound(int key, boolean ceiling, boolean inclusive)
+    {
+        int cur = root;
+        int bound = NIL;
+        while (cur != NIL)
+        {
+            int compare = ceiling ? Integer.compare(keys[cur], key) : Integer.compare(key, keys[cur]);
+            if (compare > 0 || (compare == 0 && inclusive))
+            {
+                bound = cur;
+                cur = ceiling ? left[cur] : right[cur];
+            }
+            else
+            {
+                cur = ceiling ? right[cur] : left[cur];
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Obtain the first, or lowest, key in this BST.
+     *
+     * @return the least key
+     */
+    public int first()
+    {
+        if (root == NIL)
+        {
+            throw new NoSuchElementException("first method cannot be called on an empty set");
+        }
+        int cur = root;
+        while (left[cur] != NIL)
+        {
+            cur = left[cur];
+        }
+        return keys[cur];
+    }
+
+    /**
+     * Obtain the last, or highest, key in this BST.
+     *
+     * @return the greatest key
+     */
+    public int last()
+    {
+        if (root == NIL)
+        {
+            throw new NoSuchElementException("last method cannot be called on an empty set");
+        }
+        int cur = root;
+        while (right[cur] != NIL)
+        {
+            cur = right[cur];
+        }
+        return keys[cur];
+    }
+
+    /**
+     * Obtains the key in this BST at a certain index in the inorder traversal of the tree.
+     *
+     * @param index the index in the inorder traversal of the tree being obtained from
+     * @return the key at index
+     */
+    public int get(int index)
+    {
+        if (index < 0 || index >= count)
+        {
+            throw new IndexOutOfBoundsException("index in get method must be between 0 and size");
+        }
+        int cur = root;
+        while (index != sizeOf(left[cur]))
+        {
+            if (index < sizeOf(left[cur]))
+            {
+                cur = left[cur];
+            }
+            else
+            {
+                index -= sizeOf(left[cur]) + 1;
+                cur = right[cur];
+            }
+        }
+        return keys[cur];
+    }
+
+    /**
+     * Obtains the rank of a key, meaning the number of keys in this BST smaller than it.
+     *
+     * @param key the key whose rank is wanted
+     * @return the number of keys smaller than key
+     */
+    public int rank(int key)
+    {
+        int rank = 0;
+        int cur = root;
+        while (cur != NIL)
+        {
+            if (key <= keys[cur])
+            {
+                cur = left[cur];
+            }
+            else
+            {
+                rank += sizeOf(left[cur]) + 1;
+                cur = right[cur];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Obtains the size of this BST.
+     *
+     * @return the size
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Checks if this BST is empty.
+     *
+     * @return true if empty; otherwise,
+     *         false
+     */
+    public boolean isEmpty()
+    {
+        return root == NIL;
+    }
+
+    /**
+     * Obtains the height of this BST.
+     *
+     * @return the height
+     */
+    public int height()
+    {
+        return heightOf(root);
+    }
+
+    /**
+     * Makes this BST empty. The arrays keep their capacity, and every slot becomes free again.
+     */
+    public void clear()
+    {
+        root = NIL;
+        free = NIL;
+        used = 0;
+        count = 0;
+        modCount++;
+    }
+
+    /**
+     * Copies the keys of this BST into a new array, in increasing order.
+     *
+     * @return the sorted keys
+     */
+    public int[] toArray()
+    {
+        int[] result = new int[count];
+        PrimitiveIterator.OfInt iterator = iterator();
+        for (int i = 0; i < count; i++)
+        {
+            result[i] = iterator.nextInt();
+        }
+        return result;
+    }
+
+    /**
+     * Creates a lazy inorder iterator over this BST, which keeps the path to the next node on an int stack.
+     * Calling nextInt instead of next avoids boxing.
+     *
+     * @return the inorder iterator
+     */
+    public PrimitiveIterator.OfInt iterator()
+    {
+        return new InOrderIterator();
+    }
+
+    /**
+     * Creates a string representation of this BST on a single line, in the same format as BST.
+     *
+     * @return the toString
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext())
+        {
+            sb.append(iterator.nextInt()).append(", ");
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * A lazy inorder iterator over this IntBST, holding the slots of the path to the next node on an int
+     * stack. It is fail-fast and supports remove.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private class InOrderIterator implements PrimitiveIterator.OfInt
+    {
+        private int[] stack = new int[heightOf(root) + 1];
+        private int top = 0;
+        private int lastReturned;
+        private boolean canRemove;
+        private int expectedModCount = modCount;
+
+        /**
+         * Constructor for the inorder iterator. Pushes the path down to the smallest key.
+         */
+        public InOrderIterator()
+        {
+            pushLeft(root);
+        }
+
+        /**
+         * Pushes a node and all of its left descendants onto the stack.
+         *
+         * @param node the slot of the node from which to start pushing
+         */
+        private void pushLeft(int node)
+        {
+            while (node != NIL)
+            {
+                stack[top++] = node;
+                node = left[node];
+            }
+        }
+
+        /**
+         * Checks if the iterator has a next key.
+         *
+         * @return true if a next key exists; otherwise,
+         *         false
+         */
+        @Override
+        public boolean hasNext()
+        {
+            return top > 0;
+        }
+
+        /**
+         * Iterates to the next key in this iterator.
+         *
+         * @return the next key of the inorder traversal
+         */
+        @Override
+        public int nextInt()
+        {
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException("BST was modified during iteration");
+            }
+            if (top == 0)
+            {
+                throw new NoSuchElementException("end of iterator reached");
+            }
+            int node = stack[--top];
+            pushLeft(right[node]);
+            lastReturned = keys[node];
+            canRemove = true;
+            return lastReturned;
+        }
+
+        /**
+         * Removes the last key returned by this iterator, then seeks past it again in O(height).
+         */
+        @Override
+        public void remove()
+        {
+            if (!canRemove)
+            {
+                throw new IllegalStateException("next must be called before remove");
+            }
+            if (modCount != expectedModCount)
+            {
+                throw new ConcurrentModificationException("BST was modified during iteration");
+            }
+            IntBST.this.remove(lastReturned);
+            expectedModCount = modCount;
+            stack = new int[heightOf(root) + 1];
+            top = 0;
+            int cur = root;
+            while (cur != NIL)
+            {
+                if (lastReturned < keys[cur])
+                {
+                    stack[top++] = cur;
+                    cur = left[cur];
+                }
+                else
+                {
+                    cur = right[cur];
+                }
+            }
+            canRemove = false;
+        }
+    }
+}
@@ -91,19 +91,23 @@ public class MountainClimb {
         }
         scanner.close();
 
-        BSTMountain mountain = new BSTMountain();
-        for (int i = 0; i < stops.size(); i++)
-        {
-            mountain.add(stops.get(i));
-        }
+        BSTMountain mountain = BSTMountain.fromInsertionOrder(stops);
 
-        //Creates the list of safe solutions
+        //Prints the safe solutions as the search finds them
         Hiker hiker = new Hiker();
-        ArrayList<String> solutions = mountain.getSolutions(hiker);
-        for (int i = 0; i < solutions.size(); i++)
-        {
-            System.out.println(solutions.get(i));
-        }
+        StringBuilder line = new StringBuilder();
+        mountain.forEachSolution(hiker, path -> {
+            line.setLength(0);
+            for (int i = 0; i < path.size(); i++)
+            {
+                if (i > 0)
+                {
+                    line.append(' ');
+                }
+                line.append(path.get(i).getLabel());
+            }
+            System.out.println(line);
+        });
         //Program terminates
     }
 
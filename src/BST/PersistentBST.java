@@ -0,0 +1,664 @@
+package BST;
+import java.util.*;
+
+/**
+ * A persistent version of the BST, whose nodes are never changed once they are built. Adding or removing
+ * an element copies only the nodes on the path from the root to the change (plus the few nodes an AVL
+ * rotation touches) and shares every other node with the previous version, so an update costs O(height)
+ * memory and the old version stays intact. Taking a snapshot is therefore O(1): it is just another
+ * handle on the current root. Readers of a snapshot never need a lock, while updates through the same
+ * handle are serialized.
+ *
+ * @param <E> the data type stored in the nodes of this BST
+ *
+ * @author Shrey Khater
+ * @version 12/5/22
+ */
+public class PersistentBST<E extends Comparable<E>> implements Iterable<E>
+{
+    /**
+     * The immutable nodes of a PersistentBST, which store the data element, both children, the height
+     * of the node and the size of its subtree. All of them are final, so a node can be shared by any
+     * number of versions of the tree and read from any thread.
+     *
+     * @param <E> the data type stored in the node
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    protected static final class Node<E>
+    {
+        protected final E data;
+        protected final Node<E> left;
+        protected final Node<E> right;
+        protected final int height;
+        protected final int size;
+
+        /**
+         * Constructor for objects of class Node, which works out the height and subtree size from the
+         * children.
+         *
+         * @param data the data element to be stored in this node
+         * @param left the left child node of this node
+         * @param right the right child node of this node
+         */
+        public Node(E data, Node<E> left, Node<E> right)
+        {
+            this.data = data;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(heightOf(left), heightOf(right));
+            this.size = 1 + sizeOf(left) + sizeOf(right);
+        }
+    }
+
+    private volatile Node<E> root;
+    private final BST.Balancing balancing;
+
+    /**
+     * Constructor for PersistentBST objects.
+     */
+    public PersistentBST()
+    {
+        this(BST.Balancing.NONE);
+    }
+
+    /**
+     * Constructor for PersistentBST objects that rebalance themselves with the given strategy.
+     *
+     * @param balancing the balancing strategy used on every add and remove
+     */
+    public PersistentBST(BST.Balancing balancing)
+    {
+        this(null, balancing);
+        if (balancing == null)
+        {
+            throw new NullPointerException("balancing strategy cannot be null");
+        }
+    }
+
+    /**
+     * Constructor for PersistentBST objects holding a copy of a BST, with exactly the same shape.
+     * The copy is made with the BST's postorder iterator, so it uses no recursion.
+     *
+     * @param tree the BST to be copied
+     */
+    public PersistentBST(BST<E> tree)
+    {
+        this(null, tree.balancing);
+        ArrayDeque<Node<E>> built = new ArrayDeque<Node<E>>();
+        BST<E>.PostOrderIterator iterator = tree.new PostOrderIterator(tree.root);
+        while (iterator.hasNext())
+        {
+            BST<E>.Node node = iterator.advance();
+            Node<E> right = (node.right == null) ? null : built.pop();
+            Node<E> left = (node.left == null) ? null : built.pop();
+            built.push(new Node<E>(node.data, left, right));
+        }
+        root = built.peek();
+    }
+
+    /**
+     * Constructor for a version of a PersistentBST sharing an existing root.
+     *
+     * @param root the root of the version
+     * @param balancing the balancing strategy used on every add and remove
+     */
+    private PersistentBST(Node<E> root, BST.Balancing balancing)
+    {
+        this.root = root;
+        this.balancing = balancing;
+    }
+
+    /**
+     * Obtains an independent handle on the current version of this tree in O(1). Later updates through
+     * either handle are not seen by the other.
+     *
+     * @return the snapshot
+     */
+    public PersistentBST<E> snapshot()
+    {
+        return new PersistentBST<E>(root, balancing);
+    }
+
+    /**
+     * Obtains a new version of this tree with an element added, leaving this tree unchanged.
+     *
+     * @param data the element to be added
+     * @return the new version, or this tree if it already contains the element
+     */
+    public PersistentBST<E> with(E data)
+    {
+        Node<E> current = root;
+        Node<E> updated = insert(current, data);
+        return (updated == current) ? this : new PersistentBST<E>(updated, balancing);
+    }
+
+    /**
+     * Obtains a new version of this tree with an element removed, leaving this tree unchanged.
+     *
+     * @param data the element to be removed
+     * @return the new version, or this tree if it doesn't contain the element
+     */
+    public PersistentBST<E> without(E data)
+    {
+        Node<E> current = root;
+        Node<E> updated = delete(current, data);
+        return (updated == current) ? this : new PersistentBST<E>(updated, balancing);
+    }
+
+    /**
+     * Adds an element to this tree by moving it to a new version. Snapshots taken earlier are unaffected.
+     *
+     * @param data the element to be added
+     * @return true if the element was able ot be added; otherwise,
+     *         false
+     */
+    public synchronized boolean add(E data)
+    {
+        Node<E> current = root;
+        root = insert(current, data);
+        return root != current;
+    }
+
+    /**
+     * Removes an element from this tree by moving it to a new version. Snapshots taken earlier are
+     * unaffected.
+     *
+     * @param data the element to be removed
+     * @return true if the element was able to be removed; otherwise,
+     *         false.
+     */
+    public synchronized boolean remove(E data)
+    {
+        Node<E> current = root;
+        root = delete(current, data);
+        return root != current;
+    }
+
+    /**
+     * Makes this tree empty. Snapshots taken earlier are unaffected.
+     */
+    public synchronized void clear()
+    {
+        root = null;
+    }
+
+    /**
+     * Builds the version of a tree with an element added, copying the search path from the bottom up.
+     *
+     * @param top the root of the tree
+     * @param data the element to be added
+     * @return the root of the new version, or top itself if the element is already there
+     */
+    private Node<E> insert(Node<E> top, E data)
+    {
+        if (data == null)
+        {
+            throw new NullPointerException("null value found");
+        }
+        ArrayList<Node<E>> path = new ArrayList<Node<E>>();
+        ArrayList<Boolean> wentLeft = new ArrayList<Boolean>();
+        Node<E> cur = top;
+        while (cur != null)
+        {
+            int compare = data.compareTo(cur.data);
+            if (compare == 0)
+            {
+                return top;
+            }
+            path.add(cur);
+            wentLeft.add(compare < 0);
+            cur = (compare < 0) ? cur.left : cur.right;
+        }
+        return copyPath(path, wentLeft, new Node<E>(data, null, null));
+    }
+
+    /**
+     * Builds the version of a tree with an element removed, copying the search path from the bottom up.
+     * A node with two children is replaced by a copy holding its predecessor.
+     *
+     * @param top the root of the tree
+     * @param data the element to be removed
+     * @return the root of the new version, or top itself if the element is not there
+     */
+    private Node<E> delete(Node<E> top, E data)
+    {
+        if (data == null)
+        {
+            throw new NullPointerException("null value found");
+        }
+        ArrayList<Node<E>> path = new ArrayList<Node<E>>();
+        ArrayList<Boolean> wentLeft = new ArrayList<Boolean>();
+        Node<E> cur = top;
+        while (cur != null)
+        {
+            int compare = data.compareTo(cur.data);
+            if (compare == 0)
+            {
+                break;
+            }
+            path.add(cur);
+            wentLeft.add(compare < 0);
+            cur = (compare < 0) ? cur.left : cur.right;
+        }
+        if (cur == null)
+        {
+            return top;
+        }
+        Node<E> replacement;
+        if (cur.left == null)
+        {
+            replacement = cur.right;
+        }
+        else if (cur.right == null)
+        {
+            replacement = cur.left;
+        }
+        else
+        {
+            ArrayList<Node<E>> spine = new ArrayList<Node<E>>();
+            ArrayList<Boolean> spineLeft = new ArrayList<Boolean>();
+            Node<E> predecessor = cur.left;
+            while (predecessor.right != null)
+            {
+                spine.add(predecessor);
+                spineLeft.add(false);
+                predecessor = predecessor.right;
+            }
+            Node<E> newLeft = copyPath(spine, spineLeft, predecessor.left);
+            replacement = rebalance(new Node<E>(predecessor.data, newLeft, cur.right));
+        }
+        return copyPath(path, wentLeft, replacement);
+    }
+
+    /**
+     * Copies the nodes of a search path from the bottom up, hanging the given subtree where the search
+     * ended and rebalancing every copy.
+     *
+     * @param path the nodes on the search path, root first
+     * @param wentLeft for each node on the path, whether the search went to its left child
+     * @param bottom the subtree replacing the end of the path
+     * @return the root of the copied path
+     */
+    private Node<E> copyPath(ArrayList<Node<E>> path, ArrayList<Boolean> wentLeft, Node<E> bottom)
+    {
+        Node<E> child = bottom;
+        for (int i = path.size() - 1; i >= 0; i--)
+        {
+            Node<E> node = path.get(i);
+            if (wentLeft.get(i))
+            {
+                child = rebalance(new Node<E>(node.data, child, node.right));
+            }
+            else
+            {
+                child = rebalance(new Node<E>(node.data, node.left, child));
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Restores the AVL height invariant at a freshly copied node by building rotated copies. Trees built
+     * without balancing are returned unchanged.
+     *
+     * @param node the node to be rebalanced
+     * @return the root of the rebalanced subtree
+     */
+    private Node<E> rebalance(Node<E> node)
+    {
+        if (balancing != BST.Balancing.AVL)
+        {
+            return node;
+        }
+        int balance = heightOf(node.left) - heightOf(node.right);
+        if (balance > 1)
+        {
+            Node<E> left = node.left;
+            if (heightOf(left.left) < heightOf(left.right))
+            {
+                left = rotateLeft(left);
+            }
+            return rotateRight(new Node<E>(node.data, left, node.right));
+        }
+        if (balance < -1)
+        {
+            Node<E> right = node.right;
+            if (heightOf(right.right) < heightOf(right.left))
+            {
+                right = rotateRight(right);
+            }
+            return rotateLeft(new Node<E>(node.data, node.left, right));
+        }
+        return node;
+    }
+
+    /**
+     * Builds a copy of a subtree rotated to the right.
+     *
+     * @param node the root of the subtree to be rotated
+     * @return the new root of the subtree
+     */
+    private Node<E> rotateRight(Node<E> node)
+    {
+        Node<E> pivot = node.left;
+        return new Node<E>(pivot.data, pivot.left, new Node<E>(node.data, pivot.right, node.right));
+    }
+
+    /**
+     * Builds a copy of a subtree rotated to the left.
+     *
+     * @param node the root of the subtree to be rotated
+     * @return the new root of the subtree
+     */
+    private Node<E> rotateLeft(Node<E> node)
+    {
+        Node<E> pivot = node.right;
+        return new Node<E>(pivot.data, new Node<E>(node.data, node.left, pivot.left), pivot.right);
+    }
+
+    /**
+     * Checks if this tree contains a certain element.
+     *
+     * @param e the element being searched for
+     * @return true if the tree contains e; otherwise,
+     *         false
+     */
+    public boolean contains(E e)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("object cannot be null");
+        }
+        Node<E> cur = root;
+        while (cur != null)
+        {
+            int compare = e.compareTo(cur.data);
+            if (compare == 0)
+            {
+                return true;
+            }
+            cur = (compare < 0) ? cur.left : cur.right;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the smallest element in this tree greater than or equal to the given element.
+     *
+     * @param e the "ceiling" element being compared to
+     * @return the smallest element greater than or equal to the ceiling, or null
+     */
+    public E ceiling(E e)
+    {
+        return findBound(e, true, true);
+    }
+
+    /**
+     * Returns the smallest element in this tree greater than the given element.
+     *
+     * @param e the "higher" element being compared to
+     * @return the smallest element greater than the ceiling, or null
+     */
+    public E higher(E e)
+    {
+        return findBound(e, true, false);
+    }
+
+    /**
+     * Returns the biggest element in this tree less than or equal to the given element.
+     *
+     * @param e the "floor" element being compared to
+     * @return the biggest element less than or equal to the floor, or null
+     */
+    public E floor(E e)
+    {
+        return findBound(e, false, true);
+    }
+
+    /**
+     * Returns the biggest element in this tree less than the given element.
+     *
+     * @param e the "lower" element being compared to
+     * @return the biggest element less than the lower, or null
+     */
+    public E lower(E e)
+    {
+        return findBound(e, false, false);
+    }
+
+    /**
+     * Helper method for the ceiling, higher, floor and lower methods.
+     *
+     * @param e the element being compared to
+     * @param ceiling true to search for a ceiling, false to search for a floor
+     * @param inclusive whether an element equal to e can be returned
+     * @return the element found, or null if there is none
+     */
+    private E findBound(E e, boolean ceiling, boolean inclusive)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("bound cannot be called with an empty value");
+        }
+        Node<E> cur = root;
+        Node<E> bound = null;
+        while (cur != null)
+        {
+            int compare = ceiling ? cur.data.compareTo(e) : e.compareTo(cur.data);
+            if (compare > 0 || (compare == 0 && inclusive))
+            {
+                bound = cur;
+                cur = ceiling ? cur.left : cur.right;
+            }
+            else
+            {
+                cur = ceiling ? cur.right : cur.left;
+            }
+        }
+        return (bound == null) ? null : bound.data;
+    }
+
+    /**
+     * Obtain the first, or lowest, element in this tree.
+     *
+     * @return the least element
+     */
+    public E first()
+    {
+        Node<E> cur = root;
+        if (cur == null)
+        {
+            throw new NoSuchElementException("first method cannot be called on an empty set");
+        }
+        while (cur.left != null)
+        {
+            cur = cur.left;
+        }
+        return cur.data;
+    }
+
+    /**
+     * Obtain the last, or highest, element in this tree.
+     *
+     * @return the greatest element
+     */
+    public E last()
+    {
+        Node<E> cur = root;
+        if (cur == null)
+        {
+            throw new NoSuchElementException("last method cannot be called on an empty set");
+        }
+        while (cur.right != null)
+        {
+            cur = cur.right;
+        }
+        return cur.data;
+    }
+
+    /**
+     * Obtains the element at a certain index in the inorder traversal of this tree.
+     *
+     * @param index the index in the inorder traversal of the tree being obtained from
+     * @return the element at index
+     */
+    public E get(int index)
+    {
+        Node<E> cur = root;
+        if (index < 0 || index >= sizeOf(cur))
+        {
+            throw new IndexOutOfBoundsException("index in get method must be between 0 and size");
+        }
+        while (index != sizeOf(cur.left))
+        {
+            if (index < sizeOf(cur.left))
+            {
+                cur = cur.left;
+            }
+            else
+            {
+                index -= sizeOf(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return cur.data;
+    }
+
+    /**
+     * Obtains the rank of an element, meaning the number of elements in this tree smaller than it.
+     *
+     * @param e the element whose rank is wanted
+     * @return the number of elements smaller than e
+     */
+    public int rank(E e)
+    {
+        if (e == null)
+        {
+            throw new NullPointerException("rank cannot be called with an empty value");
+        }
+        int count = 0;
+        Node<E> cur = root;
+        while (cur != null)
+        {
+            if (e.compareTo(cur.data) <= 0)
+            {
+                cur = cur.left;
+            }
+            else
+            {
+                count += sizeOf(cur.left) + 1;
+                cur = cur.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Obtains the size of this tree.
+     *
+     * @return the size
+     */
+    public int size()
+    {
+        return sizeOf(root);
+    }
+
+    /**
+     * Checks if this tree is empty.
+     *
+     * @return true if empty; otherwise,
+     *         false
+     */
+    public boolean isEmpty()
+    {
+        return root == null;
+    }
+
+    /**
+     * Obtains the height of this tree.
+     *
+     * @return the height
+     */
+    public int height()
+    {
+        return heightOf(root);
+    }
+
+    /**
+     * Creates a lazy inorder iterator over the version of this tree current at the time of the call.
+     * Later updates are never seen by the iterator, so it cannot fail.
+     *
+     * @return the inorder iterator
+     */
+    public Iterator<E> iterator()
+    {
+        final ArrayDeque<Node<E>> stack = new ArrayDeque<Node<E>>();
+        for (Node<E> cur = root; cur != null; cur = cur.left)
+        {
+            stack.push(cur);
+        }
+        return new Iterator<E>()
+        {
+            public boolean hasNext()
+            {
+                return !stack.isEmpty();
+            }
+
+            public E next()
+            {
+                if (stack.isEmpty())
+                {
+                    throw new NoSuchElementException("end of iterator reached");
+                }
+                Node<E> node = stack.pop();
+                for (Node<E> cur = node.right; cur != null; cur = cur.left)
+                {
+                    stack.push(cur);
+                }
+                return node.data;
+            }
+        };
+    }
+
+    /**
+     * Creates a string representation of this tree on a single line, in the same format as BST.
+     *
+     * @return the toString
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("[");
+        for (E e : this)
+        {
+            sb.append(e).append(", ");
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Obtains the height of a node, treating an empty subtree as height 0.
+     *
+     * @param node the node
+     * @param <E> the data type stored in the node
+     * @return the height of the node
+     */
+    private static <E> int heightOf(Node<E> node)
+    {
+        return (node == null) ? 0 : node.height;
+    }
+
+    /**
+     * Obtains the size of the subtree of a node, treating an empty subtree as size 0.
+     *
+     * @param node the node
+     * @param <E> the data type stored in the node
+     * @return the size of the subtree
+     */
+    private static <E> int sizeOf(Node<E> node)
+    {
+        return (node == null) ? 0 : node.size;
+    }
+}
@@ -1,4 +1,10 @@
 package BST;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -10,9 +16,46 @@ import java.util.*;
  */
 public class RestStop implements Comparable<RestStop>
 {
+    /**
+     * Encodes a RestStop for BST.save and BST.load as its label followed by its supplies and its
+     * obstacles. Each list is stored as its length (-1 for no list) and then its strings, and every
+     * string as its length and then its UTF-8 bytes.
+     */
+    public static final BST.KeyCodec<RestStop> CODEC = new BST.KeyCodec<RestStop>()
+    {
+        @Override
+        public byte[] encode(RestStop key)
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes))
+            {
+                writeString(out, key.label);
+                writeList(out, key.supplies);
+                writeList(out, key.obstacles);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public RestStop decode(ByteBuffer bytes)
+        {
+            String label = readString(bytes);
+            ArrayList<String> supplies = readList(bytes);
+            ArrayList<String> obstacles = readList(bytes);
+            return new RestStop(supplies, obstacles, label);
+        }
+    };
+
     private ArrayList<String> supplies;
     private ArrayList<String> obstacles;
     private String label;
+    private int foodDelta;
+    private int axeDelta;
+    private int raftDelta;
 
     /**
      * Constructor for objects of class RestStop. Initializes instance variables.
@@ -33,9 +76,10 @@ public class RestStop implements Comparable<RestStop>
      */
     public RestStop(ArrayList<String> supplies, ArrayList<String> obstacles, String label)
     {
-        this.supplies = supplies;
-        this.obstacles = obstacles;
+        this.supplies = copy(supplies);
+        this.obstacles = copy(obstacles);
         this.label = label;
+        compile();
     }
 
     /**
@@ -45,17 +89,19 @@ public class RestStop implements Comparable<RestStop>
      */
     public void setSupplies(ArrayList<String> supplies)
     {
-        this.supplies = supplies;
+        this.supplies = copy(supplies);
+        compile();
     }
 
     /**
      * Sets the list of obstacles to a new list.
      *
-     * @param supplies the new list of obstacles
+     * @param obstacles the new list of obstacles
      */
-    public void setObstacles(ArrayList<String> supplies)
+    public void setObstacles(ArrayList<String> obstacles)
     {
-        this.obstacles = obstacles;
+        this.obstacles = copy(obstacles);
+        compile();
     }
 
     /**
@@ -79,23 +125,106 @@ public class RestStop implements Comparable<RestStop>
     }
 
     /**
-     * Obtains the list of supplies of this RestStop.
+     * Obtains the list of supplies of this RestStop. The solver works from counts compiled when the
+     * list is set, so this is a copy, and changing the supplies takes a call to setSupplies.
      *
-     * @return the list of supplies
+     * @return a copy of the list of supplies, or null
      */
     public ArrayList<String> getSupplies()
     {
-        return supplies;
+        return copy(supplies);
     }
 
     /**
-     * Obtains the list of obstacles of this RestStop.
+     * Obtains the list of obstacles of this RestStop. The solver works from counts compiled when the
+     * list is set, so this is a copy, and changing the obstacles takes a call to setObstacles.
      *
-     * @return the list of obstacles
+     * @return a copy of the list of obstacles, or null
      */
     public ArrayList<String> getObstacles()
     {
-        return obstacles;
+        return copy(obstacles);
+    }
+
+    /**
+     * Helper method for the constructor, setters and getters that copies a list of supplies or obstacles,
+     * so that the caller's list can change later without making the compiled counts stale.
+     *
+     * @param list the list being copied, or null
+     * @return the copy, or null
+     */
+    private static ArrayList<String> copy(ArrayList<String> list)
+    {
+        return (list == null) ? null : new ArrayList<String>(list);
+    }
+
+    /**
+     * Compiles the supplies and obstacles into the change they make to each of the hiker's counts. The
+     * hiker picks up every supply before facing any obstacle, and each kind of obstacle only uses up its
+     * own kind of supply, so the order of the obstacles cannot matter: the hiker gets past them exactly
+     * when none of the counts ends up negative.
+     */
+    private void compile()
+    {
+        foodDelta = 0;
+        axeDelta = 0;
+        raftDelta = 0;
+        if (supplies != null)
+        {
+            for (String supply : supplies)
+            {
+                if (supply.equals("food")) {
+                    foodDelta++;
+                } else if (supply.equals("raft")) {
+                    raftDelta++;
+                } else if (supply.equals("axe")) {
+                    axeDelta++;
+                }
+            }
+        }
+        if (obstacles != null)
+        {
+            for (String obstacle : obstacles)
+            {
+                if (obstacle.equals("fallen tree")) {
+                    axeDelta--;
+                } else if (obstacle.equals("river")) {
+                    raftDelta--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtains the food a hiker gains at this RestStop.
+     *
+     * @return the number of food supplies
+     */
+    public int getFoodDelta()
+    {
+        return foodDelta;
+    }
+
+    /**
+     * Obtains the change to a hiker's axes at this RestStop, meaning the axes picked up minus the
+     * fallen trees cut.
+     *
+     * @return the change to the number of axes
+     */
+    public int getAxeDelta()
+    {
+        return axeDelta;
+    }
+
+    /**
+     * Obtains the change to a hiker's rafts at this RestStop, meaning the rafts picked up minus the
+     * rivers crossed.
+     *
+     * @return the change to the number of rafts
+     */
+    public int getRaftDelta()
+    {
+        return raftDelta;
     }
 
     /**
@@ -114,6 +243,87 @@ public class RestStop implements Comparable<RestStop>
         return this.label.compareTo(other.label);
     }
 
+    /**
+     * Helper method for CODEC that writes a string as its length and its UTF-8 bytes.
+     *
+     * @param out the stream being written to
+     * @param string the string being written
+     * @throws IOException if the stream cannot be written to
+     */
+    private static void writeString(DataOutputStream out, String string) throws IOException
+    {
+        byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    /**
+     * Helper method for CODEC that writes a list of strings as its length and its strings.
+     *
+     * @param out the stream being written to
+     * @param list the list being written, or null
+     * @throws IOException if the stream cannot be written to
+     */
+    private static void writeList(DataOutputStream out, ArrayList<String> list) throws IOException
+    {
+        if (list == null)
+        {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(list.size());
+        for (String string : list)
+        {
+            writeString(out, string);
+        }
+    }
+
+    /**
+     * Helper method for CODEC that reads a string written by writeString. The length is checked against
+     * the bytes left before anything is allocated, so a corrupt length cannot exhaust the heap.
+     *
+     * @param bytes the buffer being read from
+     * @return the string
+     */
+    private static String readString(ByteBuffer bytes)
+    {
+        int length = bytes.getInt();
+        if (length < 0 || length > bytes.remaining())
+        {
+            throw new IllegalArgumentException("corrupt string length " + length);
+        }
+        byte[] utf8 = new byte[length];
+        bytes.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Helper method for CODEC that reads a list of strings written by writeList. Since every string takes
+     * at least four bytes, a length that could not fit in the bytes left is rejected before the list is
+     * allocated.
+     *
+     * @param bytes the buffer being read from
+     * @return the list, or null
+     */
+    private static ArrayList<String> readList(ByteBuffer bytes)
+    {
+        int length = bytes.getInt();
+        if (length == -1)
+        {
+            return null;
+        }
+        if (length < 0 || length > bytes.remaining() / 4)
+        {
+            throw new IllegalArgumentException("corrupt list length " + length);
+        }
+        ArrayList<String> list = new ArrayList<String>(length);
+        for (int i = 0; i < length; i++)
+        {
+            list.add(readString(bytes));
+        }
+        return list;
+    }
+
     /**
      * ToString representation of a RestStop, (its label).
      *
@@ -0,0 +1,20 @@
+package BST;
+import java.util.List;
+
+/**
+ * A SolutionSink receives the safe solutions of a BSTMountain one at a time, as the search finds them,
+ * so that they never have to be held in memory all at once.
+ *
+ * @author Shrey Khater
+ * @version 12/5/22
+ */
+public interface SolutionSink
+{
+    /**
+     * Receives the next safe solution. The list is a view of the search's current path, so it is only
+     * valid during this call and must be copied to be kept.
+     *
+     * @param path the rest stops of the solution, from the top of the mountain down
+     */
+    void accept(List<RestStop> path);
+}
@@ -0,0 +1,796 @@
+package BST;
+import java.util.*;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A multi-threaded stress test of ConcurrentBST, which checks the results of concurrent operations
+ * against sequential models:
+ * add, remove and contains histories are checked for linearizability key by key;
+ * ceiling and floor are checked by threads that each own a disjoint set of keys;
+ * freeze and split are checked to see a single version of a tree that a writer keeps sliding;
+ * addAll on the tree's own views is checked to finish and leave the tree consistent;
+ * the range views are checked to answer, not throw, while a writer keeps emptying the tree;
+ * and polling the range views from several threads is checked to hand out every element exactly once.
+ * It needs no test framework, and exits with status 1 on the first failure:
+ *
+ *     javac -d out src/BST/*.java test/BST/*.java
+ *     java -cp out BST.ConcurrentBSTStressTest
+ *
+ * @author Shrey Khater
+ * @version 12/5/22
+ */
+public class ConcurrentBSTStressTest
+{
+    private static final int THREADS = 4;
+    private static final long TIMEOUT_SECONDS = 60;
+    private static final int SENTINEL = Integer.MAX_VALUE;
+
+    private final BST.Balancing balancing;
+    private final Random random;
+
+    /**
+     * Constructor for ConcurrentBSTStressTest objects.
+     *
+     * @param balancing the balancing strategy of the trees being tested
+     * @param seed the seed of the random operations
+     */
+    public ConcurrentBSTStressTest(BST.Balancing balancing, long seed)
+    {
+        this.balancing = balancing;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Runs every check on unbalanced and AVL trees.
+     *
+     * @param args unused
+     */
+    public static void main(String[] args)
+    {
+        try
+        {
+            for (BST.Balancing balancing : BST.Balancing.values())
+            {
+                ConcurrentBSTStressTest test = new ConcurrentBSTStressTest(balancing, 42);
+                test.checkHistories(300, 16, 40);
+                test.checkOwnedKeys(4096, 100000);
+                test.checkFreeze(64, 2000);
+                test.checkSplit(64, 200);
+                test.checkAddAllOfViews(1000, 200);
+                test.checkViewsWhileEmptying(2, 200000);
+                test.checkViewPolls(4096, 50);
+                System.out.println(balancing + " ok");
+            }
+        }
+        catch (AssertionError | InterruptedException ex)
+        {
+            ex.printStackTrace();
+            System.exit(1);
+        }
+        System.out.println("ConcurrentBSTStressTest passed");
+    }
+
+    /**
+     * Runs rounds of concurrent adds, removes and contains on a few keys, timing every call, and checks
+     * that the history of every key is linearizable: there must be an order of its calls, consistent
+     * with their timing, in which each result matches a sequential set. Calls on different keys never
+     * affect each other, so checking every key on its own is enough.
+     *
+     * @param rounds the number of rounds
+     * @param keys the number of keys the threads share
+     * @param opsPerThread the number of calls each thread makes in a round
+     * @throws InterruptedException if the test is interrupted
+     */
+    public void checkHistories(int rounds, int keys, int opsPerThread) throws InterruptedException
+    {
+        for (int round = 0; round < rounds; round++)
+        {
+            ConcurrentBST<Integer> tree = new ConcurrentBST<Integer>(balancing);
+            boolean[] initial = new boolean[keys];
+            for (int key = 0; key < keys; key++)
+            {
+                initial[key] = random.nextBoolean();
+                if (initial[key])
+                {
+                    tree.add(key);
+                }
+            }
+            List<List<Call>> histories = new ArrayList<List<Call>>();
+            Runnable[] tasks = new Runnable[THREADS];
+            for (int t = 0; t < THREADS; t++)
+            {
+                List<Call> history = new ArrayList<Call>();
+                histories.add(history);
+                long seed = random.nextLong();
+                tasks[t] = () -> {
+                    Random local = new Random(seed);
+                    for (int i = 0; i < opsPerThread; i++)
+                    {
+                        int key = local.nextInt(keys);
+                        int kind = local.nextInt(3);
+                        long start = System.nanoTime();
+                        boolean result = (kind == Call.ADD) ? tree.add(key)
+                                         : (kind == Call.REMOVE) ? tree.remove(key) : tree.contains(key);
+                        history.add(new Call(key, kind, result, start, System.nanoTime()));
+                    }
+                };
+            }
+            runConcurrently(tasks);
+
+            for (int key = 0; key < keys; key++)
+            {
+                List<Call> calls = new ArrayList<Call>();
+                for (List<Call> history : histories)
+                {
+                    for (Call call : history)
+                    {
+                        if (call.key == key)
+                        {
+                            calls.add(call);
+                        }
+                    }
+                }
+                if (calls.size() < Long.SIZE - 1 && !linearizable(calls, 0L, initial[key], new HashSet<Long>()))
+                {
+                    throw new AssertionError("history of key " + key + " is not linearizable: " + calls);
+                }
+            }
+            checkConsistent(tree);
+        }
+    }
+
+    /**
+     * Searches for a linearization of the calls on one key that have not been placed yet. A call can
+     * be placed next if it started before every other unplaced call ended.
+     *
+     * @param calls every call on the key
+     * @param placed a bit for every call already placed
+     * @param present whether the key is in the set after the placed calls
+     * @param seen the states already searched without success
+     * @return true if the remaining calls can be linearized; otherwise,
+     *         false
+     */
+    private boolean linearizable(List<Call> calls, long placed, boolean present, Set<Long> seen)
+    {
+        if (placed == (1L << calls.size()) - 1)
+        {
+            return true;
+        }
+        if (!seen.add((placed << 1) | (present ? 1 : 0)))
+        {
+            return false;
+        }
+        long firstEnd = Long.MAX_VALUE;
+        for (int i = 0; i < calls.size(); i++)
+        {
+            if ((placed & (1L << i)) == 0)
+            {
+                firstEnd = Math.min(firstEnd, calls.get(i).end);
+            }
+        }
+        for (int i = 0; i < calls.size(); i++)
+        {
+            Call call = calls.get(i);
+            if ((placed & (1L << i)) != 0 || call.start > firstEnd)
+            {
+                continue;
+            }
+            boolean expected = (call.kind == Call.ADD) ? !present : present;
+            boolean after = (call.kind == Call.ADD) || (call.kind == Call.CONTAINS && present);
+            if (call.result == expected && linearizable(calls, placed | (1L << i), after, seen))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lets every thread add, remove and search its own keys (those equal to its index modulo the number
+     * of threads) while the others do the same, checking every result against a sequential model of its
+     * keys. Since no other thread changes them, a ceiling or floor must agree with the model wherever it
+     * lands on a key of the thread, and can never skip past one. Afterwards the tree must hold exactly
+     * the union of the models.
+     *
+     * @param keys the number of keys
+     * @param opsPerThread the number of calls each thread makes
+     * @throws InterruptedException if the test is interrupted
+     */
+    public void checkOwnedKeys(int keys, int opsPerThread) throws InterruptedException
+    {
+        ConcurrentBST<Integer> tree = new ConcurrentBST<Integer>(balancing);
+        List<TreeSet<Integer>> models = new ArrayList<TreeSet<Integer>>();
+        for (int t = 0; t < THREADS; t++)
+        {
+            models.add(new TreeSet<Integer>());
+        }
+        for (int key = 0; key < keys; key++)
+        {
+            if (random.nextBoolean())
+            {
+                tree.add(key);
+                models.get(key % THREADS).add(key);
+            }
+        }
+        Runnable[] tasks = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++)
+        {
+            int owner = t;
+            TreeSet<Integer> model = models.get(t);
+            long seed = random.nextLong();
+            tasks[t] = () -> {
+                Random local = new Random(seed);
+                for (int i = 0; i < opsPerThread; i++)
+                {
+                    int key = local.nextInt(keys / THREADS) * THREADS + owner;
+                    switch (local.nextInt(5))
+                    {
+                        case 0:
+                            check(tree.add(key) == model.add(key), "add " + key);
+                            break;
+                        case 1:
+                            check(tree.remove(key) == model.remove(key), "remove " + key);
+                            break;
+                        case 2:
+                            check(tree.contains(key) == model.contains(key), "contains " + key);
+                            break;
+                        case 3:
+                            checkBound(key, tree.ceiling(key), model.ceiling(key), true, owner);
+                            break;
+                        default:
+                            checkBound(key, tree.floor(key), model.floor(key), false, owner);
+                            break;
+                    }
+                }
+            };
+        }
+        runConcurrently(tasks);
+
+        TreeSet<Integer> expected = new TreeSet<Integer>();
+        for (TreeSet<Integer> model : models)
+        {
+            expected.addAll(model);
+        }
+        check(new ArrayList<Integer>(tree).equals(new ArrayList<Integer>(expected)), "final contents");
+        checkConsistent(tree);
+    }
+
+    /**
+     * Checks a ceiling or floor returned while other threads were changing their keys.
+     *
+     * @param key the key searched around
+     * @param found the ceiling or floor returned by the tree
+     * @param modelled the ceiling or floor among the keys of the thread
+     * @param ceiling true for a ceiling, false for a floor
+     * @param owner the index of the thread
+     */
+    private static void checkBound(int key, Integer found, Integer modelled, boolean ceiling, int owner)
+    {
+        String message = (ceiling ? "ceiling " : "floor ") + key + " = " + found + ", modelled " + modelled;
+        if (found == null)
+        {
+            check(modelled == null, message);
+            return;
+        }
+        int sign = ceiling ? 1 : -1;
+        check(sign * Integer.compare(found, key) >= 0, message);
+        check(modelled == null || sign * Integer.compare(found, modelled) <= 0, message);
+        check(found % THREADS != owner || found.equals(modelled), message);
+    }
+
+    /**
+     * Freezes a tree over and over while a writer slides a window of consecutive keys along it, adding
+     * the key after the window before removing the first key of it. A single version of the tree is
+     * always a run of window or window + 1 consecutive keys followed by a sentinel that never moves, so
+     * any copy that mixes versions shows up as a gap, a wrong size or a missing sentinel.
+     *
+     * @param window the number of keys in the window
+     * @param freezes the number of copies made
+     * @throws InterruptedException if the test is interrupted
+     */
+    public void checkFreeze(int window, int freezes) throws InterruptedException
+    {
+        ConcurrentBST<Integer> tree = slidingTree(window);
+        AtomicBoolean stop = new AtomicBoolean();
+        runConcurrently(slider(tree, window, stop), () -> {
+            try
+            {
+                for (int i = 0; i < freezes; i++)
+                {
+                    FrozenBST<Integer> frozen = tree.freeze();
+                    ArrayList<Integer> elements = new ArrayList<Integer>();
+                    for (Integer e : frozen)
+                    {
+                        elements.add(e);
+                    }
+                    check(elements.size() == frozen.size(), "frozen size " + frozen.size() + " of " + elements);
+                    checkWindow(elements, window);
+                }
+            }
+            finally
+            {
+                stop.set(true);
+            }
+        });
+        checkConsistent(tree);
+    }
+
+    /**
+     * Splits a tree while a writer slides a window of consecutive keys along it, as in checkFreeze. Both
+     * halves and the key together must be one version of the window, and the writer's later changes
+     * must leave the emptied tree holding a consistent run of newer keys.
+     *
+     * @param window the number of keys in the window
+     * @param rounds the number of trees split
+     * @throws InterruptedException if the test is interrupted
+     */
+    public void checkSplit(int window, int rounds) throws InterruptedException
+    {
+        for (int round = 0; round < rounds; round++)
+        {
+            ConcurrentBST<Integer> tree = slidingTree(window);
+            AtomicBoolean stop = new AtomicBoolean();
+            long spins = random.nextInt(100000);
+            AtomicReference<ArrayList<Integer>> cut = new AtomicReference<ArrayList<Integer>>();
+            runConcurrently(slider(tree, window, stop), () -> {
+                try
+                {
+                    for (long i = 0; i < spins; i++)
+                    {
+                        Thread.onSpinWait();
+                    }
+                    int key = tree.first() + window / 2;
+                    BST<Integer>.Split split = tree.split(key);
+                    ArrayList<Integer> elements = new ArrayList<Integer>(split.getLeft());
+                    check(elements.isEmpty() || elements.get(elements.size() - 1) < key, "left half " + elements);
+                    check(split.getLeft().size() == elements.size(), "left size");
+                    if (split.getKey() != null)
+                    {
+                        elements.add(split.getKey());
+                    }
+                    int before = elements.size();
+                    elements.addAll(split.getRight());
+                    check(before == elements.size() || elements.get(before) > key, "right half " + elements);
+                    check(split.getRight().size() == elements.size() - before, "right size");
+                    checkWindow(elements, window);
+                    cut.set(elements);
+                    for (int i = 0; i < window; i++)
+                    {
+                        Thread.onSpinWait();
+                    }
+                }
+                finally
+                {
+                    stop.set(true);
+                }
+            });
+            checkConsistent(tree);
+            ArrayList<Integer> rest = new ArrayList<Integer>(tree);
+            ArrayList<Integer> elements = cut.get();
+            for (int i = 0; i < rest.size(); i++)
+            {
+                check(rest.get(i) == rest.get(0) + i, "tree after split is not a run of keys: " + rest);
+            }
+            check(rest.isEmpty() || rest.get(0) > elements.get(elements.size() - 2), "tree after split " + rest);
+        }
+    }
+
+    /**
+     * Adds the tree's own views to it from several threads while a writer adds and removes odd keys.
+     * Every call has to finish (the views take the read lock that addAll's write lock would block), and
+     * the tree must still hold every even key and nothing outside the range.
+     *
+     * @param keys the number of keys
+     * @param callsPerThread the number of addAll calls each thread makes
+     * @throws InterruptedException if the test is interrupted
+     */
+    public void checkAddAllOfViews(int keys, int callsPerThread) throws InterruptedException
+    {
+        ConcurrentBST<Integer> tree = new ConcurrentBST<Integer>(balancing);
+        for (int key = 0; key < keys; key += 2)
+        {
+            tree.add(key);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        long writerSeed = random.nextLong();
+        Runnable[] tasks = new Runnable[THREADS];
+        tasks[0] = () -> {
+            Random local = new Random(writerSeed);
+            while (!stop.get())
+            {
+                int key = 2 * local.nextInt(keys / 2) + 1;
+                if (local.nextBoolean())
+                {
+                    tree.add(key);
+                }
+                else
+                {
+                    tree.remove(key);
+                }
+            }
+        };
+        for (int t = 1; t < THREADS; t++)
+        {
+            long seed = random.nextLong();
+            tasks[t] = () -> {
+                try
+                {
+                    Random local = new Random(seed);
+                    for (int i = 0; i < callsPerThread; i++)
+                    {
+                        int lo = local.nextInt(keys);
+                        int hi = lo + local.nextInt(keys - lo + 1);
+                        switch (i % 4)
+                        {
+                            case 0:
+                                tree.addAll(tree.headSet(hi));
+                                break;
+                            case 1:
+                                tree.addAll(tree.descendingSet());
+                                break;
+                            case 2:
+                                tree.addAll(tree.subSet(lo, hi));
+                                break;
+                            default:
+                                tree.addAll(tree.tailSet(lo, true).descendingSet());
+                                break;
+                        }
+                    }
+                }
+                finally
+                {
+                    stop.set(true);
+                }
+            };
+        }
+        runConcurrently(tasks);
+
+        for (int key = 0; key < keys; key += 2)
+        {
+            check(tree.contains(key), "even key " + key + " lost");
+        }
+        check(tree.first() >= 0 && tree.last() < keys, "keys outside the range");
+        checkConsistent(tree);
+    }
+
+    /**
+     * Asks the range views whether they are empty, and for their ceilings and floors, while a writer
+     * keeps filling the tree and clearing it. A view with an unbounded end must look that end up in a
+     * single step, so none of these calls may throw because the tree emptied halfway through, and every
+     * element returned must be inside the view. The tree yields after every emptiness check, so that a
+     * check followed by a separate lookup would lose the race often enough to fail.
+     *
+     * @param keys the number of keys the writer adds before each clear
+     * @param callsPerThread the number of calls each thread makes
+     * @throws InterruptedException if the test is interrupted
+     */
+    public void checkViewsWhileEmptying(int keys, int callsPerThread) throws InterruptedException
+    {
+        ConcurrentBST<Integer> tree = new ConcurrentBST<Integer>(balancing)
+        {
+            @Override
+            public boolean isEmpty()
+            {
+                boolean empty = super.isEmpty();
+                Thread.yield();
+                return empty;
+            }
+        };
+        AtomicBoolean stop = new AtomicBoolean();
+        Runnable[] tasks = new Runnable[THREADS];
+        tasks[0] = () -> {
+            while (!stop.get())
+            {
+                for (int key = 0; key < keys; key++)
+                {
+                    tree.add(key);
+                }
+                tree.clear();
+            }
+        };
+        for (int t = 1; t < THREADS; t++)
+        {
+            long seed = random.nextLong();
+            tasks[t] = () -> {
+                try
+                {
+                    Random local = new Random(seed);
+                    for (int i = 0; i < callsPerThread; i++)
+                    {
+                        int bound = local.nextInt(keys);
+                        NavigableSet<Integer> head = tree.headSet(bound, true);
+                        NavigableSet<Integer> tail = tree.tailSet(bound, true);
+                        NavigableSet<Integer> descending = tree.descendingSet();
+                        head.isEmpty();
+                        tail.isEmpty();
+                        descending.isEmpty();
+                        Integer e = head.ceiling(-1);
+                        check(e == null || (e >= 0 && e <= bound), "head ceiling " + e);
+                        e = tail.floor(keys);
+                        check(e == null || (e >= bound && e < keys), "tail floor " + e);
+                        e = descending.ceiling(keys);
+                        check(e == null || (e >= 0 && e < keys), "descending ceiling " + e);
+                        e = descending.floor(-1);
+                        check(e == null || (e >= 0 && e < keys), "descending floor " + e);
+                    }
+                }
+                finally
+                {
+                    stop.set(true);
+                }
+            };
+        }
+        runConcurrently(tasks);
+        checkConsistent(tree);
+    }
+
+    /**
+     * Empties trees by polling their range views from several threads at once: head and tail views,
+     * sub views and the descending view, from either end. Every element polled must be inside the view
+     * it came from, and each element of the tree must be polled by exactly one thread. The keys are
+     * added in random order, so that an unbalanced tree does not degenerate into a list.
+     *
+     * @param keys the number of keys in each tree
+     * @param rounds the number of trees emptied
+     * @throws InterruptedException if the test is interrupted
+     */
+    public void checkViewPolls(int keys, int rounds) throws InterruptedException
+    {
+        for (int round = 0; round < rounds; round++)
+        {
+            ConcurrentBST<Integer> tree = new ConcurrentBST<Integer>(balancing);
+            List<Integer> shuffled = new ArrayList<Integer>();
+            for (int key = 0; key < keys; key++)
+            {
+                shuffled.add(key);
+            }
+            Collections.shuffle(shuffled, random);
+            for (Integer key : shuffled)
+            {
+                tree.add(key);
+            }
+            List<List<Integer>> polled = new ArrayList<List<Integer>>();
+            Runnable[] tasks = new Runnable[THREADS];
+            for (int t = 0; t < THREADS; t++)
+            {
+                List<Integer> mine = new ArrayList<Integer>();
+                polled.add(mine);
+                long seed = random.nextLong();
+                tasks[t] = () -> {
+                    Random local = new Random(seed);
+                    while (!tree.isEmpty())
+                    {
+                        int lo = local.nextInt(keys);
+                        int hi = lo + local.nextInt(keys - lo);
+                        NavigableSet<Integer> view;
+                        switch (local.nextInt(4))
+                        {
+                            case 0:
+                                view = tree.headSet(hi, true);
+                                lo = 0;
+                                break;
+                            case 1:
+                                view = tree.tailSet(lo, true);
+                                hi = keys - 1;
+                                break;
+                            case 2:
+                                view = tree.subSet(lo, true, hi, true);
+                                break;
+                            default:
+                                view = tree.descendingSet();
+                                lo = 0;
+                                hi = keys - 1;
+                                break;
+                        }
+                        Integer e = local.nextBoolean() ? view.pollFirst() : view.pollLast();
+                        if (e != null)
+                        {
+                            check(e >= lo && e <= hi, "polled " + e + " outside [" + lo + ", " + hi + "]");
+                            mine.add(e);
+                        }
+                    }
+                };
+            }
+            runConcurrently(tasks);
+
+            boolean[] seen = new boolean[keys];
+            int count = 0;
+            for (List<Integer> mine : polled)
+            {
+                for (Integer e : mine)
+                {
+                    check(!seen[e], "element " + e + " polled twice");
+                    seen[e] = true;
+                    count++;
+                }
+            }
+            check(count == keys, "polled " + count + " of " + keys + " elements");
+            checkConsistent(tree);
+        }
+    }
+
+    /**
+     * Creates a tree holding the first window of consecutive keys and the sentinel.
+     *
+     * @param window the number of keys in the window
+     * @return the tree
+     */
+    private ConcurrentBST<Integer> slidingTree(int window)
+    {
+        ConcurrentBST<Integer> tree = new ConcurrentBST<Integer>(balancing);
+        for (int key = 0; key < window; key++)
+        {
+            tree.add(key);
+        }
+        tree.add(SENTINEL);
+        return tree;
+    }
+
+    /**
+     * Creates the writer that slides the window of a tree by one key at a time until told to stop.
+     *
+     * @param tree the tree holding the window
+     * @param window the number of keys in the window
+     * @param stop set once the writer has to stop
+     * @return the writer
+     */
+    private static Runnable slider(ConcurrentBST<Integer> tree, int window, AtomicBoolean stop)
+    {
+        return () -> {
+            for (int key = 0; !stop.get(); key++)
+            {
+                tree.add(key + window);
+                tree.remove(key);
+            }
+        };
+    }
+
+    /**
+     * Checks that a copy of a sliding tree is a single version of it.
+     *
+     * @param elements the copied elements, in order
+     * @param window the number of keys in the window
+     */
+    private static void checkWindow(List<Integer> elements, int window)
+    {
+        check(!elements.isEmpty() && elements.get(elements.size() - 1) == SENTINEL, "no sentinel " + elements);
+        check(elements.size() == window + 1 || elements.size() == window + 2, "window size " + elements);
+        for (int i = 1; i < elements.size() - 1; i++)
+        {
+            check(elements.get(i) == elements.get(0) + i, "window has a gap " + elements);
+        }
+    }
+
+    /**
+     * Checks that the size of a tree matches its elements, that they are in strictly increasing order,
+     * and that an AVL tree is no higher than an AVL tree can be.
+     *
+     * @param tree the tree being checked
+     */
+    private void checkConsistent(ConcurrentBST<Integer> tree)
+    {
+        int count = 0;
+        Integer previous = null;
+        for (Integer e : tree)
+        {
+            check(previous == null || previous < e, "elements out of order at " + e);
+            previous = e;
+            count++;
+        }
+        check(count == tree.size(), "size " + tree.size() + " but " + count + " elements");
+        if (balancing == BST.Balancing.AVL && count > 0)
+        {
+            check(tree.height() <= 1.45 * Math.log(count + 2) / Math.log(2), "AVL tree too high");
+        }
+    }
+
+    /**
+     * Runs tasks on their own threads, all released at once, and waits for them to finish. A task that
+     * throws fails the check, and so does one still running after the timeout, which means a deadlock.
+     *
+     * @param tasks the tasks to be run
+     * @throws InterruptedException if the test is interrupted
+     */
+    private static void runConcurrently(Runnable... tasks) throws InterruptedException
+    {
+        CyclicBarrier start = new CyclicBarrier(tasks.length);
+        AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        Thread[] threads = new Thread[tasks.length];
+        for (int i = 0; i < tasks.length; i++)
+        {
+            Runnable task = tasks[i];
+            threads[i] = new Thread(() -> {
+                try
+                {
+                    start.await();
+                    task.run();
+                }
+                catch (Throwable ex)
+                {
+                    failure.compareAndSet(null, ex);
+                }
+            });
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        for (Thread thread : threads)
+        {
+            thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            if (thread.isAlive())
+            {
+                throw new AssertionError("a thread did not finish in " + TIMEOUT_SECONDS + "s (deadlock?)");
+            }
+        }
+        if (failure.get() != null)
+        {
+            throw new AssertionError("a thread failed", failure.get());
+        }
+    }
+
+    /**
+     * Fails the test if a condition does not hold.
+     *
+     * @param condition the condition
+     * @param message the description of the failure
+     */
+    private static void check(boolean condition, String message)
+    {
+        if (!condition)
+        {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * One timed call in a history of add, remove and contains calls.
+     *
+     * @author Shrey Khater
+     * @version 12/5/22
+     */
+    private static class Call
+    {
+        private static final int ADD = 0;
+        private static final int REMOVE = 1;
+        private static final int CONTAINS = 2;
+
+        private final int key;
+        private final int kind;
+        private final boolean result;
+        private final long start;
+        private final long end;
+
+        /**
+         * Constructor for the call.
+         *
+         * @param key the key the call was made with
+         * @param kind ADD, REMOVE or CONTAINS
+         * @param result the result returned
+         * @param start the time just before the call
+         * @param end the time just after it returned
+         */
+        public Call(int key, int kind, boolean result, long start, long end)
+        {
+            this.key = key;
+            this.kind = kind;
+            this.result = result;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Creates a string representation of the call.
+         *
+         * @return the toString
+         */
+        @Override
+        public String toString()
+        {
+            String[] names = {"add", "remove", "contains"};
+            return names[kind] + "(" + key + ")=" + result + "@[" + start + ", " + end + "]";
+        }
+    }
+}